@@ -0,0 +1,108 @@
+package com.wallet.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps in-process caches coherent across instances. A cache registers how to drop keys locally
+ * and publishes the keys it changed; the bus coalesces everything published during
+ * {@code wallet.cache-bus.flush-interval-ms} into one {@link InvalidationBatch} and hands it to
+ * the configured {@link InvalidationTransport}, and batches from other instances are applied
+ * through the registered handlers. Without a transport ({@code wallet.cache-bus.transport=none},
+ * a single instance) publishing is a no-op.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, Consumer<Collection<String>>> handlers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Timer lag;
+    private Map<String, Set<String>> pending = new HashMap<>();
+
+    public CacheInvalidationBus(ObjectProvider<InvalidationTransport> transport, MeterRegistry meterRegistry) {
+        this.transport = transport.getIfAvailable();
+        this.meterRegistry = meterRegistry;
+        this.lag = Timer.builder("wallet.cache-bus.lag")
+                .description("Time from a batch being flushed to it being applied on another instance")
+                .register(meterRegistry);
+        if (this.transport != null) {
+            this.transport.subscribe(this::receive);
+        }
+    }
+
+    /**
+     * Applies {@code handler} to keys of {@code cache} that other instances changed.
+     */
+    public void register(String cache, Consumer<Collection<String>> handler) {
+        handlers.put(cache, handler);
+    }
+
+    /**
+     * Queues keys for other instances to drop. Call once the change is committed, so no instance
+     * can reload the old value after it has dropped it.
+     */
+    public void publish(String cache, Collection<?> keys) {
+        if (transport == null || keys.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            Set<String> queued = pending.computeIfAbsent(cache, name -> new HashSet<>());
+            keys.forEach(key -> queued.add(String.valueOf(key)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.cache-bus.flush-interval-ms:50}")
+    public void flush() {
+        if (transport == null) {
+            return;
+        }
+        Map<String, Set<String>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            transport.send(new InvalidationBatch(origin, System.currentTimeMillis(), batch));
+        } catch (RuntimeException e) {
+            log.warn("Could not send cache invalidations, retrying with the next flush", e);
+            batch.forEach(this::publish);
+            return;
+        }
+        batch.forEach((cache, keys) ->
+                meterRegistry.counter("wallet.cache-bus.published", "cache", cache).increment(keys.size()));
+    }
+
+    void receive(InvalidationBatch batch) {
+        if (origin.equals(batch.origin())) {
+            return;
+        }
+        batch.keys().forEach((cache, keys) -> {
+            Consumer<Collection<String>> handler = handlers.get(cache);
+            if (handler != null) {
+                handler.accept(keys);
+                meterRegistry.counter("wallet.cache-bus.received", "cache", cache).increment(keys.size());
+            }
+        });
+        lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - batch.sentAtMillis())));
+    }
+}
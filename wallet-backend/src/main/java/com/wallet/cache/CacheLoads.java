@@ -0,0 +1,69 @@
+package com.wallet.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Loads misses of an {@link AsyncCache} on the calling thread, outside the cache's map locks. A
+ * synchronous Caffeine load runs inside {@code ConcurrentHashMap.compute}, which on JDK 21 pins a
+ * virtual thread to its carrier for the whole query. Here only an incomplete future is inserted
+ * under the lock; the caller that inserted it runs the query in its own transaction, and concurrent
+ * callers for the same key wait on that future. A key invalidated while it loads is not put back.
+ */
+public final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    /**
+     * The cached value, or the one {@code loader} returns; a {@code null} result is not cached.
+     */
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return join(future);
+    }
+
+    /**
+     * The cached values, with all misses loaded by one call to {@code loader}. Keys it leaves out
+     * are missing from the result and not cached.
+     */
+    public static <K, V> Map<K, V> getAll(AsyncCache<K, V> cache, Collection<K> keys,
+                                          Function<Set<? extends K>, Map<K, V>> loader) {
+        // Caffeine calls the bulk function on this thread once the misses have been reserved
+        return join(cache.getAll(keys, (missing, executor) -> CompletableFuture.completedFuture(loader.apply(missing))));
+    }
+
+    /**
+     * The value of a load that has already succeeded, or {@code null} while it is in flight or if it failed.
+     */
+    public static <V> V completedValue(CompletableFuture<V> future) {
+        return future.state() == Future.State.SUCCESS ? future.resultNow() : null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
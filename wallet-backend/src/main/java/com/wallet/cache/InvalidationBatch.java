@@ -0,0 +1,14 @@
+package com.wallet.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keys to drop, by cache name, coalesced from everything one instance changed during a flush
+ * interval.
+ *
+ * @param origin id of the sending {@link CacheInvalidationBus}, so it can skip its own batches
+ * @param sentAtMillis wall-clock time of the flush, for the delivery lag metric
+ */
+public record InvalidationBatch(String origin, long sentAtMillis, Map<String, Set<String>> keys) {
+}
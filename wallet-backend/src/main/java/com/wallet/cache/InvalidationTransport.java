@@ -0,0 +1,18 @@
+package com.wallet.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBatch}es between instances. Delivery is at-most-once and best
+ * effort: caches keep their TTLs as the bound on staleness when a batch is lost. Chosen with
+ * {@code wallet.cache-bus.transport}.
+ */
+public interface InvalidationTransport {
+
+    void send(InvalidationBatch batch);
+
+    /**
+     * Registers the receiver of batches from every instance, including the caller's own.
+     */
+    void subscribe(Consumer<InvalidationBatch> receiver);
+}
@@ -0,0 +1,109 @@
+package com.wallet.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.config.IdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Shares batches through the {@code cache_invalidations} table: one row per flushed batch, polled
+ * by every instance every {@code poll-interval-ms}. Ids embed the sender's clock and rows commit
+ * slightly after their id is taken, so each poll rereads the last {@code lookback-ms} and skips the
+ * rows it has already seen; the lookback has to cover clock skew between instances. Rows are
+ * purged after {@code retention-ms}. Needs no infrastructure beyond the database every instance
+ * already shares.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.cache-bus.transport", havingValue = "jdbc")
+@Slf4j
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    private static final String INSERT = "INSERT INTO cache_invalidations (id, origin, payload) VALUES (?, ?, ?)";
+    private static final String SELECT_SINCE =
+            "SELECT id, origin, payload FROM cache_invalidations WHERE id > ? ORDER BY id";
+    private static final String PURGE = "DELETE FROM cache_invalidations WHERE id < ?";
+    private static final TypeReference<Map<String, Set<String>>> PAYLOAD = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final long lookbackMs;
+    private final long retentionMs;
+    private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+    // Ids delivered within the lookback window; only touched by the polling thread
+    private final NavigableSet<Long> seen = new TreeSet<>();
+
+    public JdbcInvalidationTransport(
+            JdbcTemplate jdbcTemplate,
+            IdGenerator idGenerator,
+            ObjectMapper objectMapper,
+            @Value("${wallet.cache-bus.jdbc.lookback-ms:5000}") long lookbackMs,
+            @Value("${wallet.cache-bus.jdbc.retention-ms:60000}") long retentionMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+        this.lookbackMs = lookbackMs;
+        this.retentionMs = retentionMs;
+    }
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        try {
+            jdbcTemplate.update(INSERT, idGenerator.nextId(), batch.origin(), objectMapper.writeValueAsString(batch.keys()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise invalidation batch", e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.cache-bus.jdbc.poll-interval-ms:200}")
+    public void poll() {
+        long since = IdGenerator.firstIdAt(System.currentTimeMillis() - lookbackMs);
+        seen.headSet(since, true).clear();
+        jdbcTemplate.query(SELECT_SINCE, rs -> {
+            long id = rs.getLong("id");
+            if (!seen.add(id)) {
+                return;
+            }
+            InvalidationBatch batch = new InvalidationBatch(rs.getString("origin"), IdGenerator.epochMillisOf(id),
+                    parse(id, rs.getString("payload")));
+            receivers.forEach(receiver -> receiver.accept(batch));
+        }, since);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.cache-bus.jdbc.retention-ms:60000}")
+    public void purge() {
+        int purged = jdbcTemplate.update(PURGE, IdGenerator.firstIdAt(System.currentTimeMillis() - retentionMs));
+        if (purged > 0) {
+            log.debug("Purged {} cache invalidation batches", purged);
+        }
+    }
+
+    private Map<String, Set<String>> parse(long id, String payload) {
+        try {
+            return objectMapper.readValue(payload, PAYLOAD);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable cache invalidation batch {}", id, e);
+            return Map.of();
+        }
+    }
+}
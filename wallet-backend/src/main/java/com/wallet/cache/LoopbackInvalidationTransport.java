@@ -0,0 +1,38 @@
+package com.wallet.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers batches synchronously to every application context in the same JVM that uses this
+ * transport, which lets tests run a cluster in one process.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.cache-bus.transport", havingValue = "loopback")
+public class LoopbackInvalidationTransport implements InvalidationTransport, DisposableBean {
+
+    private static final List<Consumer<InvalidationBatch>> RECEIVERS = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<InvalidationBatch>> ownReceivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(InvalidationBatch batch) {
+        RECEIVERS.forEach(receiver -> receiver.accept(batch));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> receiver) {
+        ownReceivers.add(receiver);
+        RECEIVERS.add(receiver);
+    }
+
+    @Override
+    public void destroy() {
+        RECEIVERS.removeAll(ownReceivers);
+    }
+}
@@ -0,0 +1,42 @@
+package com.wallet.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt strength for this machine. The cost of one hash at {@code minStrength} is measured
+ * and doubled per extra round, which is how BCrypt scales, and the highest strength that stays within
+ * the target latency wins. Never goes below {@code minStrength}, whatever the hardware.
+ */
+@Slf4j
+final class BCryptCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    private BCryptCalibrator() {
+    }
+
+    static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        // The first hash pays for class loading and JIT warm-up
+        encoder.encode(SAMPLE_PASSWORD);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double millis = best / 1_000_000.0;
+        int strength = minStrength;
+        while (strength < maxStrength && millis * 2 <= targetMillis) {
+            millis *= 2;
+            strength++;
+        }
+        log.info("Calibrated BCrypt strength {} (~{} ms per hash, target {} ms)",
+                strength, Math.round(millis), targetMillis);
+        return strength;
+    }
+}
@@ -1,13 +1,20 @@
 package com.wallet.config;
 
-import com.wallet.repository.UserRepository;
+import com.wallet.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,16 +23,31 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
+
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuth;
+    private final MeterRegistry meterRegistry;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, @Lazy UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(
+            JwtTokenProvider jwtTokenProvider,
+            @Lazy UserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService,
+            @Value("${jwt.stateless-auth:true}") boolean statelessAuth,
+            MeterRegistry meterRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuth = statelessAuth;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -33,10 +55,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
-        
+
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final JwtPrincipal principal;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -44,21 +66,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtTokenProvider.extractUsername(jwt);
-
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            
-            if (jwtTokenProvider.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+        Timer.Sample verification = Timer.start(meterRegistry);
+        try {
+            principal = jwtTokenProvider.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException ex) {
+            verification.stop(meterRegistry.timer("wallet.jwt.verification", "result", "invalid"));
+            log.debug("Rejected JWT: {}", ex.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (tokenRevocationService.isRevoked(principal)) {
+            verification.stop(meterRegistry.timer("wallet.jwt.verification", "result", "revoked"));
+            log.debug("Rejected revoked JWT for user {}", principal.getUserId());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        verification.stop(meterRegistry.timer("wallet.jwt.verification", "result", "valid"));
+
+        // Controllers read the verified principal instead of parsing the token again
+        request.setAttribute(JwtPrincipal.REQUEST_ATTRIBUTE, principal);
+
+        if (principal.getEmail() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken = statelessAuth
+                    ? authenticateFromClaims(principal)
+                    : authenticateFromUserDetails(principal);
+
+            if (authToken != null) {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    // Signed claims are trusted as-is, so the request path needs no user lookup
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(JwtPrincipal principal) {
+        return new UsernamePasswordAuthenticationToken(principal, null, USER_AUTHORITIES);
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromUserDetails(JwtPrincipal principal) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(principal.getEmail());
+        if (!principal.getEmail().equals(userDetails.getUsername())) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
 }
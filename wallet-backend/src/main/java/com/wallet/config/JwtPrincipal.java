@@ -0,0 +1,32 @@
+package com.wallet.config;
+
+import lombok.Value;
+
+import java.security.Principal;
+import java.time.Instant;
+
+/**
+ * Verified identity carried by a JWT. Built once per request by {@link JwtAuthenticationFilter}
+ * and exposed to controllers through the {@link #REQUEST_ATTRIBUTE} request attribute. In stateless
+ * mode it is also the principal of the request's {@code Authentication}.
+ */
+@Value
+public class JwtPrincipal implements Principal {
+
+    public static final String REQUEST_ATTRIBUTE = "com.wallet.jwtPrincipal";
+
+    String tokenId;
+    String email;
+    Long userId;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,59 @@
+package com.wallet.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users moved money or registered in the last {@code read-your-writes-ms}, so that
+ * their own reads skip a replica that may not have caught up yet. Reads are attributed to the
+ * authenticated caller of the current request; work with no caller, such as logins and scheduled
+ * jobs, is treated as pinned and stays on the primary.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWrites(
+            @Value("${wallet.datasource.replica.read-your-writes-ms:5000}") long windowMs,
+            @Value("${wallet.datasource.replica.max-tracked-users:100000}") long maxTrackedUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+    }
+
+    public void markWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * @return true when the current caller is unknown or wrote within the window
+     */
+    public boolean pinnedToPrimary() {
+        Long callerId = currentCallerId();
+        return callerId == null || recentWriters.getIfPresent(callerId) != null;
+    }
+
+    private static Long currentCallerId() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(JwtPrincipal.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof JwtPrincipal principal) {
+            return principal.getUserId();
+        }
+        // Streaming responses finish off the request thread, where only the security context is propagated
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal.getUserId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the single auto-configured pool with a primary and a read replica when
+ * {@code wallet.datasource.replica.url} is set. {@code @Transactional(readOnly = true)} work for an
+ * authenticated caller is served by the replica unless {@link ReadYourWrites} pins the caller to the
+ * primary; writes and all other work use the primary.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${wallet.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("wallet.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties primary,
+            @Value("${wallet.datasource.replica.url}") String url,
+            @Value("${wallet.datasource.replica.username:}") String username,
+            @Value("${wallet.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primary.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? primary.determineUsername() : username)
+                .password(password.isEmpty() ? primary.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        // Defence in depth: a routing mistake fails loudly instead of writing to the replica
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, readYourWrites, meterRegistry));
+    }
+}
@@ -0,0 +1,45 @@
+package com.wallet.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Has to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager asks for its connection before the read-only flag is bound, and the
+ * proxy defers the choice to the first statement.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReadYourWrites readYourWrites;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites,
+                             MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        this.primaryConnections = meterRegistry.counter("wallet.datasource.connections", "target", PRIMARY);
+        this.replicaConnections = meterRegistry.counter("wallet.datasource.connections", "target", REPLICA);
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.pinnedToPrimary()) {
+            replicaConnections.increment();
+            return REPLICA;
+        }
+        primaryConnections.increment();
+        return PRIMARY;
+    }
+}
@@ -1,21 +1,31 @@
 package com.wallet.config;
 
 import com.wallet.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -25,19 +35,22 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Configuration(proxyBeanMethods = false)
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
+@Slf4j
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
+        return username -> meterRegistry.timer("wallet.auth.user.lookup").record(() -> userRepository.findByEmail(username))
                 .map(user -> org.springframework.security.core.userdetails.User.builder()
                         .username(user.getEmail())
                         .password(user.getPassword())
@@ -46,21 +59,79 @@ public class SecurityConfig {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    /**
+     * Rehashes a password after a successful login when its stored hash is unprefixed or weaker
+     * than the current strength.
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            if (userRepository.updatePasswordHash(user.getUsername(), user.getPassword(), newPassword) == 1) {
+                log.info("Upgraded password hash of {}", user.getUsername());
+            }
+            return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                    .password(newPassword)
+                    .build();
+        };
+    }
+
+    /**
+     * Health and info stay open; every other actuator endpoint, including Prometheus, takes HTTP Basic
+     * with the scrape credentials. Without a configured password nothing can authenticate, so the
+     * metrics stay closed.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(
+            HttpSecurity http,
+            @Value("${wallet.metrics.scrape-username:prometheus}") String scrapeUsername,
+            @Value("${wallet.metrics.scrape-password:}") String scrapePassword) throws Exception {
+        // Verified on every scrape and never stored, so a cheap work factor is enough
+        PasswordEncoder scrapeEncoder = new BCryptPasswordEncoder(4);
+        InMemoryUserDetailsManager scrapers = new InMemoryUserDetailsManager();
+        if (!scrapePassword.isBlank()) {
+            scrapers.createUser(org.springframework.security.core.userdetails.User.withUsername(scrapeUsername)
+                    .password(scrapeEncoder.encode(scrapePassword))
+                    .authorities("METRICS")
+                    .build());
+        }
+        DaoAuthenticationProvider scrapeProvider = new DaoAuthenticationProvider();
+        scrapeProvider.setUserDetailsService(scrapers);
+        scrapeProvider.setPasswordEncoder(scrapeEncoder);
+
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        .anyRequest().hasAuthority("METRICS")
+                )
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .authenticationManager(new ProviderManager(scrapeProvider))
+                .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Streaming responses finish on an async dispatch of an already authorised request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/api/**").authenticated()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -80,16 +151,39 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         UserDetailsPasswordService userDetailsPasswordService) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
+    /**
+     * BCrypt behind a bounded hashing pool. New hashes are written as {@code {bcrypt}...} at the
+     * configured strength, or at a strength calibrated to {@code wallet.auth.bcrypt.target-hash-ms}
+     * when none is set; legacy unprefixed hashes still verify and are upgraded on the next login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${wallet.auth.bcrypt.strength:0}") int strength,
+            @Value("${wallet.auth.bcrypt.target-hash-ms:250}") long targetHashMs,
+            @Value("${wallet.auth.bcrypt.min-strength:10}") int minStrength,
+            @Value("${wallet.auth.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${wallet.auth.hashing.threads:0}") int threads,
+            @Value("${wallet.auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${wallet.auth.hashing.max-wait-ms:2000}") long maxWaitMs) {
+        int bcryptStrength = strength > 0 ? strength : BCryptCalibrator.calibrate(targetHashMs, minStrength, maxStrength);
+        DelegatingPasswordEncoder bcrypt = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        bcrypt.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(bcrypt, meterRegistry),
+                hashingThreads, queueCapacity, maxWaitMs, meterRegistry);
     }
 
     @Bean
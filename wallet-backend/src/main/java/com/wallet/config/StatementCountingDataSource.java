@@ -0,0 +1,67 @@
+package com.wallet.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Counts statements prepared on the current thread between {@link #startCounting()} and
+ * {@link #stopCounting()}, whether they come from Hibernate or {@code JdbcTemplate}. A batch counts
+ * once, as it is prepared once. Threads that are not counting pay a single thread-local lookup.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public static void startCounting() {
+        STATEMENTS.set(new int[1]);
+    }
+
+    /**
+     * @return statements prepared since {@link #startCounting()}, or 0 if counting was not started
+     */
+    public static int stopCounting() {
+        int[] count = STATEMENTS.get();
+        STATEMENTS.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (STATEMENT_METHODS.contains(method.getName())) {
+                        int[] count = STATEMENTS.get();
+                        if (count != null) {
+                            count[0]++;
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
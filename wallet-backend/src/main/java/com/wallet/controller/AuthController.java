@@ -1,9 +1,11 @@
 package com.wallet.controller;
 
+import com.wallet.config.JwtPrincipal;
 import com.wallet.dto.AuthRequest;
 import com.wallet.dto.AuthResponse;
 import com.wallet.dto.RegisterRequest;
 import com.wallet.dto.UserDto;
+import com.wallet.exception.ApiException;
 import com.wallet.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -29,4 +31,14 @@ public class AuthController {
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestAttribute(value = JwtPrincipal.REQUEST_ATTRIBUTE, required = false) JwtPrincipal principal) {
+        if (principal == null) {
+            throw new ApiException("Not authenticated", 401);
+        }
+        authService.logout(principal);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,23 +1,47 @@
 package com.wallet.controller;
 
+import com.wallet.config.JwtPrincipal;
+import com.wallet.dto.ChangePasswordRequest;
 import com.wallet.dto.UserDto;
+import com.wallet.service.LedgerVersions;
 import com.wallet.service.UserService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
 
+    // Lets clients keep the body and revalidate it, instead of the no-store default
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final UserService userService;
 
+    /**
+     * Served from the profile cache, so neither a 304 nor a 200 for an unchanged profile touches
+     * the database.
+     */
     @GetMapping("/me")
-    public ResponseEntity<UserDto> getCurrentUser(Authentication authentication) {
-        String email = authentication.getName();
-        UserDto user = userService.getCurrentUser(email);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserDto> getCurrentUser(
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal,
+            WebRequest webRequest) {
+        LedgerVersions.Versioned<UserDto> user = userService.getProfile(principal.getUserId());
+        if (webRequest.checkNotModified(user.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(user.eTag()).cacheControl(REVALIDATE).body(user.body());
+    }
+
+    @PutMapping("/me/password")
+    public ResponseEntity<Void> changePassword(
+            @Valid @RequestBody ChangePasswordRequest request,
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
+        userService.changePassword(principal, request);
+        return ResponseEntity.noContent().build();
     }
 }
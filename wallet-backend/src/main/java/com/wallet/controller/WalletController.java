@@ -1,61 +1,147 @@
 package com.wallet.controller;
 
-import com.wallet.config.JwtTokenProvider;
+import com.wallet.config.JwtPrincipal;
 import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.BatchTransferRequest;
+import com.wallet.dto.BatchTransferResponse;
 import com.wallet.dto.TransactionDto;
+import com.wallet.dto.TransactionHistoryPage;
 import com.wallet.dto.TransferRequest;
 import com.wallet.dto.WalletResponse;
+import com.wallet.exception.ApiException;
+import com.wallet.service.IdempotencyService;
+import com.wallet.service.LedgerVersions;
 import com.wallet.service.TransactionService;
+import com.wallet.service.WalletEvents;
 import com.wallet.service.WalletService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/wallet")
 @RequiredArgsConstructor
 public class WalletController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final WalletService walletService;
     private final TransactionService transactionService;
-    private final JwtTokenProvider jwtTokenProvider;
+    private final IdempotencyService idempotencyService;
+    private final LedgerVersions ledgerVersions;
+    private final WalletEvents walletEvents;
 
     @PostMapping("/add")
     public ResponseEntity<WalletResponse> addMoney(
             @Valid @RequestBody AddMoneyRequest request,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
         
-        Long userId = extractUserIdFromToken(token);
-        WalletResponse response = walletService.addMoney(userId, request);
+        Long userId = principal.getUserId();
+        WalletResponse response = idempotencyKey == null
+                ? walletService.addMoney(userId, request)
+                : idempotencyService.execute(userId, idempotencyKey, "add", request,
+                        () -> walletService.addMoney(userId, request));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/transfer")
     public ResponseEntity<WalletResponse> transferMoney(
             @Valid @RequestBody TransferRequest request,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
         
-        Long userId = extractUserIdFromToken(token);
-        WalletResponse response = walletService.transferMoney(userId, request);
+        Long userId = principal.getUserId();
+        WalletResponse response = idempotencyKey == null
+                ? walletService.transferMoney(userId, request)
+                : idempotencyService.execute(userId, idempotencyKey, "transfer", request,
+                        () -> walletService.transferMoney(userId, request));
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(
+            @Valid @RequestBody BatchTransferRequest request,
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
+
+        Long userId = principal.getUserId();
+        BatchTransferResponse response = walletService.transferBatch(userId, request.getTransfers());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Answers {@code If-None-Match} polls with 304 while the user's ledger version is unchanged,
+     * without querying the history.
+     */
     @GetMapping("/transactions")
     public ResponseEntity<Page<TransactionDto>> getTransactions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestHeader("Authorization") String token) {
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal,
+            WebRequest webRequest) {
         
-        Long userId = extractUserIdFromToken(token);
-        Page<TransactionDto> transactions = transactionService.getUserTransactions(userId, page, size);
-        return ResponseEntity.ok(transactions);
+        Long userId = principal.getUserId();
+        if (webRequest.checkNotModified(ledgerVersions.currentETag(userId))) {
+            return null;
+        }
+        LedgerVersions.Versioned<Page<TransactionDto>> transactions =
+                ledgerVersions.read(userId, () -> transactionService.getUserTransactions(userId, page, size));
+        return ResponseEntity.ok().eTag(transactions.eTag()).cacheControl(UserController.REVALIDATE)
+                .body(transactions.body());
+    }
+
+    @GetMapping("/transactions/history")
+    public ResponseEntity<TransactionHistoryPage> getTransactionHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
+
+        Long userId = principal.getUserId();
+        TransactionHistoryPage history = transactionService.getTransactionHistory(userId, cursor, size);
+        return ResponseEntity.ok(history);
+    }
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
+
+        // Checked up front: once streaming starts, the status line has already been sent
+        TransactionService.ExportFormat exportFormat = TransactionService.ExportFormat.parse(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ApiException("'from' must be before 'to'");
+        }
+
+        Long userId = principal.getUserId();
+        StreamingResponseBody body = out -> transactionService.exportHistory(userId, exportFormat, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.name().toLowerCase(Locale.ROOT)).build().toString())
+                .body(body);
     }
 
-    private Long extractUserIdFromToken(String token) {
-        String jwt = token.substring(7); // Remove "Bearer " prefix
-        return jwtTokenProvider.extractUserId(jwt);
+    /**
+     * Server-sent events: a "wallet" event with the new balance and the history row each time one
+     * of the caller's balance changes commits.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestAttribute(JwtPrincipal.REQUEST_ATTRIBUTE) JwtPrincipal principal) {
+        return walletEvents.subscribe(principal.getUserId());
     }
 }
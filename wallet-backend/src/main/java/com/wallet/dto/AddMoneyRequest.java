@@ -1,19 +1,17 @@
 package com.wallet.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.wallet.model.Money;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class AddMoneyRequest {
     
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    private BigDecimal amount;
+    @PositiveAmount
+    private Money amount;
 }
@@ -0,0 +1,20 @@
+package com.wallet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequest {
+
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 transfers")
+    private List<@Valid TransferRequest> transfers;
+}
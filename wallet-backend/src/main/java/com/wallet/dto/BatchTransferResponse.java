@@ -0,0 +1,18 @@
+package com.wallet.dto;
+
+import com.wallet.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+    private int succeeded;
+    private int failed;
+    private Money balance;
+    private List<BatchTransferResult> results;
+}
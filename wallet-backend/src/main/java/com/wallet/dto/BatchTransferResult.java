@@ -0,0 +1,18 @@
+package com.wallet.dto;
+
+import com.wallet.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResult {
+    private int index;
+    private String toEmail;
+    private Money amount;
+    private boolean success;
+    private Long transactionId;
+    private String message;
+}
@@ -1,11 +1,11 @@
 package com.wallet.dto;
 
+import com.wallet.model.Money;
 import com.wallet.model.Transaction;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,8 +14,25 @@ import java.time.LocalDateTime;
 public class TransactionDto {
     private Long id;
     private Transaction.TransactionType type;
-    private BigDecimal amount;
+    private Money amount;
     private String toEmail;
     private String fromEmail;
     private LocalDateTime timestamp;
+
+    /**
+     * Projection constructor used by history queries: the counterparty's email becomes
+     * {@code toEmail} for a SEND and {@code fromEmail} for a RECEIVE.
+     */
+    public TransactionDto(Long id, Transaction.TransactionType type, Money amount,
+                          String counterpartyEmail, LocalDateTime timestamp) {
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        if (type == Transaction.TransactionType.SEND) {
+            this.toEmail = counterpartyEmail;
+        } else if (type == Transaction.TransactionType.RECEIVE) {
+            this.fromEmail = counterpartyEmail;
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryPage {
+    private List<TransactionDto> transactions;
+    private String nextCursor;
+}
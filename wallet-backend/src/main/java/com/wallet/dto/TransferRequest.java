@@ -1,6 +1,6 @@
 package com.wallet.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.wallet.model.Money;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,8 +8,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +18,6 @@ public class TransferRequest {
     private String toEmail;
     
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    private BigDecimal amount;
+    @PositiveAmount
+    private Money amount;
 }
@@ -1,11 +1,10 @@
 package com.wallet.dto;
 
+import com.wallet.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,5 +12,5 @@ public class UserDto {
     private Long id;
     private String name;
     private String email;
-    private BigDecimal balance;
+    private Money balance;
 }
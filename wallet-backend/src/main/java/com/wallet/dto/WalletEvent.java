@@ -0,0 +1,17 @@
+package com.wallet.dto;
+
+import com.wallet.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pushed to a user's event stream when one of their balance changes commits.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletEvent {
+    private Money balance;
+    private TransactionDto transaction;
+}
@@ -1,16 +1,15 @@
 package com.wallet.dto;
 
+import com.wallet.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class WalletResponse {
     private boolean success;
-    private BigDecimal balance;
+    private Money balance;
     private Long transactionId;
 }
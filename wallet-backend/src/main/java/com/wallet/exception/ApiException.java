@@ -5,14 +5,35 @@ import lombok.Getter;
 @Getter
 public class ApiException extends RuntimeException {
     private final int statusCode;
+    private final Reason reason;
 
     public ApiException(String message, int statusCode) {
-        super(message);
-        this.statusCode = statusCode;
+        this(message, statusCode, null);
     }
 
     public ApiException(String message) {
+        this(message, 400);
+    }
+
+    public ApiException(String message, int statusCode, Reason reason) {
         super(message);
-        this.statusCode = 400;
+        this.statusCode = statusCode;
+        this.reason = reason;
+    }
+
+    public static ApiException insufficientBalance() {
+        return new ApiException("Insufficient balance", 400, Reason.INSUFFICIENT_FUNDS);
+    }
+
+    public static ApiException recipientNotFound(String email) {
+        return new ApiException("Recipient not found with email: " + email, 404, Reason.RECIPIENT_NOT_FOUND);
+    }
+
+    /**
+     * Business rejections that callers and metrics tell apart without parsing the message;
+     * {@code null} for everything classified by status code alone.
+     */
+    public enum Reason {
+        INSUFFICIENT_FUNDS, RECIPIENT_NOT_FOUND
     }
 }
@@ -0,0 +1,86 @@
+package com.wallet.ledger;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long -> long} map holding the balances owned by one shard. Not thread-safe:
+ * it is only ever touched by its shard's thread, so no locking or boxing is needed.
+ */
+final class AccountBalances {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    AccountBalances(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    boolean contains(long userId) {
+        return keys[indexOf(userId)] == userId;
+    }
+
+    long get(long userId) {
+        int index = indexOf(userId);
+        if (keys[index] != userId) {
+            throw new IllegalStateException("Account " + userId + " is not loaded");
+        }
+        return values[index];
+    }
+
+    void put(long userId, long balance) {
+        int index = indexOf(userId);
+        if (keys[index] != userId) {
+            keys[index] = userId;
+            if (++size * 2 > keys.length) {
+                values[index] = balance;
+                resize();
+                return;
+            }
+        }
+        values[index] = balance;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long total() {
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                total = Math.addExact(total, values[i]);
+            }
+        }
+        return total;
+    }
+
+    private int indexOf(long userId) {
+        int mask = keys.length - 1;
+        int index = Long.hashCode(userId * 0x9E3779B97F4A7C15L) & mask;
+        while (keys[index] != EMPTY && keys[index] != userId) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
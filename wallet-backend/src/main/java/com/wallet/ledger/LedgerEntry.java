@@ -0,0 +1,44 @@
+package com.wallet.ledger;
+
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One durable, immutable ledger record. Amounts are in minor units (cents). A transfer is a single
+ * entry journaled by the sender's shard; it is projected into both SEND and RECEIVE rows.
+ */
+@Value
+public class LedgerEntry {
+
+    static final int ENCODED_SIZE = Long.BYTES * 5 + Integer.BYTES + 1;
+
+    public enum Kind {
+        ADD, TRANSFER
+    }
+
+    long sequence;
+    int shard;
+    Kind kind;
+    long fromUserId;
+    long toUserId;
+    long amount;
+    long timestampMillis;
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(sequence);
+        buffer.putInt(shard);
+        buffer.put((byte) kind.ordinal());
+        buffer.putLong(fromUserId);
+        buffer.putLong(toUserId);
+        buffer.putLong(amount);
+        buffer.putLong(timestampMillis);
+    }
+
+    static LedgerEntry readFrom(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        int shard = buffer.getInt();
+        Kind kind = Kind.values()[buffer.get()];
+        return new LedgerEntry(sequence, shard, kind, buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+}
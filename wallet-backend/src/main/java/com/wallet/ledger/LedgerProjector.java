@@ -0,0 +1,208 @@
+package com.wallet.ledger;
+
+import com.wallet.model.Money;
+import com.wallet.outbox.TransactionOutbox;
+import com.wallet.repository.TransactionStore;
+import com.wallet.service.LedgerVersions;
+import com.wallet.service.ProfileCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copies committed ledger entries into account balances, the {@link TransactionStore} and the
+ * transaction outbox in batches. Balance changes are coalesced per account and applied as relative
+ * updates, and the shard checkpoints move in the same database transaction. Only one projection runs
+ * at a time, so batches reach the database in journal order and none is in flight while draining.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.ledger.engine", havingValue = "sharded")
+@Slf4j
+public class LedgerProjector {
+
+    private static final String UPDATE_BALANCE = "UPDATE users SET balance = balance + ? WHERE id = ?";
+    private static final String UPDATE_CHECKPOINT = "UPDATE ledger_checkpoints SET last_sequence = ? WHERE shard = ?";
+    private static final String INSERT_CHECKPOINT = "INSERT INTO ledger_checkpoints (shard, last_sequence) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionStore transactionStore;
+    private final LedgerVersions ledgerVersions;
+    private final ProfileCache profileCache;
+    private final TransactionOutbox transactionOutbox;
+    private final int batchSize;
+    private final Deque<LedgerEntry> pending = new ConcurrentLinkedDeque<>();
+    private final Map<Integer, LedgerJournal> journals = new ConcurrentHashMap<>();
+    private final ReentrantLock projectionLock = new ReentrantLock();
+
+    public LedgerProjector(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            TransactionStore transactionStore,
+            LedgerVersions ledgerVersions,
+            ProfileCache profileCache,
+            TransactionOutbox transactionOutbox,
+            @Value("${wallet.ledger.projection-batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionStore = transactionStore;
+        this.ledgerVersions = ledgerVersions;
+        this.profileCache = profileCache;
+        this.transactionOutbox = transactionOutbox;
+        this.batchSize = batchSize;
+    }
+
+    void registerJournal(int shard, LedgerJournal journal) {
+        journals.put(shard, journal);
+    }
+
+    void enqueue(List<LedgerEntry> entries) {
+        pending.addAll(entries);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.ledger.projection-interval-ms:50}")
+    public void projectPending() {
+        // Held from poll to commit or requeue, so a polled batch is never invisible to drain
+        projectionLock.lock();
+        try {
+            List<LedgerEntry> batch = new ArrayList<>(batchSize);
+            LedgerEntry entry;
+            while ((entry = pending.poll()) != null) {
+                batch.add(entry);
+                if (batch.size() == batchSize && !tryProject(batch)) {
+                    return;
+                }
+            }
+            if (!batch.isEmpty()) {
+                tryProject(batch);
+            }
+        } finally {
+            projectionLock.unlock();
+        }
+    }
+
+    private boolean tryProject(List<LedgerEntry> batch) {
+        try {
+            project(batch);
+            batch.clear();
+            return true;
+        } catch (RuntimeException e) {
+            // Put the batch back in front so per-shard order is kept for the next attempt
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                pending.addFirst(batch.get(i));
+            }
+            log.warn("Ledger projection of {} entries failed, will retry", batch.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Projects everything still queued and, if all of it reached the database, runs
+     * {@code onDrained} before any other projection can start. Called on shutdown after all shards
+     * have stopped.
+     *
+     * @return whether every entry was projected
+     */
+    boolean drain(Runnable onDrained) {
+        projectionLock.lock();
+        try {
+            projectPending();
+            if (!pending.isEmpty()) {
+                return false;
+            }
+            onDrained.run();
+            return true;
+        } finally {
+            projectionLock.unlock();
+        }
+    }
+
+    /**
+     * Projects journal entries left over from a previous run that are above their shard's checkpoint.
+     *
+     * @return the highest sequence ever issued, to resume numbering from
+     */
+    long replay(List<LedgerEntry> entries) {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query("SELECT shard, last_sequence FROM ledger_checkpoints",
+                rs -> {
+                    checkpoints.put(rs.getInt("shard"), rs.getLong("last_sequence"));
+                });
+
+        long maxSequence = checkpoints.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        List<LedgerEntry> unprojected = new ArrayList<>();
+        for (LedgerEntry entry : entries) {
+            maxSequence = Math.max(maxSequence, entry.getSequence());
+            if (entry.getSequence() > checkpoints.getOrDefault(entry.getShard(), 0L)) {
+                unprojected.add(entry);
+            }
+        }
+        for (int from = 0; from < unprojected.size(); from += batchSize) {
+            project(unprojected.subList(from, Math.min(unprojected.size(), from + batchSize)));
+        }
+        if (!unprojected.isEmpty()) {
+            log.info("Replayed {} unprojected ledger entries up to sequence {}", unprojected.size(), maxSequence);
+        }
+        return maxSequence;
+    }
+
+    private void project(List<LedgerEntry> batch) {
+        Map<Long, Long> balanceDeltas = new HashMap<>();
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        List<TransactionStore.Posting> postings = new ArrayList<>(batch.size());
+
+        for (LedgerEntry entry : batch) {
+            LocalDateTime timestamp =
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestampMillis()), ZoneId.systemDefault());
+
+            balanceDeltas.merge(entry.getToUserId(), entry.getAmount(), Math::addExact);
+            Long fromUserId = null;
+            if (entry.getKind() == LedgerEntry.Kind.TRANSFER) {
+                fromUserId = entry.getFromUserId();
+                balanceDeltas.merge(fromUserId, -entry.getAmount(), Math::addExact);
+            }
+            postings.add(new TransactionStore.Posting(fromUserId, entry.getToUserId(),
+                    Money.ofMinor(entry.getAmount()), timestamp));
+            checkpoints.merge(entry.getShard(), entry.getSequence(), Math::max);
+        }
+
+        List<Object[]> balanceRows = new ArrayList<>(balanceDeltas.size());
+        balanceDeltas.forEach((userId, delta) -> balanceRows.add(new Object[]{MinorUnits.toDecimal(delta), userId}));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, balanceRows);
+            transactionOutbox.appendAll(postings, transactionStore.recordAll(postings));
+            ledgerVersions.changed(balanceDeltas.keySet());
+            profileCache.invalidate(balanceDeltas.keySet());
+            checkpoints.forEach((shard, sequence) -> {
+                if (jdbcTemplate.update(UPDATE_CHECKPOINT, sequence, shard) == 0) {
+                    jdbcTemplate.update(INSERT_CHECKPOINT, shard, sequence);
+                }
+            });
+        });
+
+        checkpoints.forEach((shard, sequence) -> {
+            LedgerJournal journal = journals.get(shard);
+            if (journal != null) {
+                journal.deleteProjectedSegments(sequence);
+            }
+        });
+        log.debug("Projected {} ledger entries touching {} accounts", batch.size(), balanceRows.size());
+    }
+}
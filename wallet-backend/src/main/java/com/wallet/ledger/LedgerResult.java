@@ -0,0 +1,13 @@
+package com.wallet.ledger;
+
+import lombok.Value;
+
+/**
+ * Outcome of a ledger command: the caller's balance after the command and the sequence of the
+ * journaled entry, both in minor units.
+ */
+@Value
+public class LedgerResult {
+    long balance;
+    long sequence;
+}
@@ -0,0 +1,261 @@
+package com.wallet.ledger;
+
+import com.wallet.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Single-writer partition of the ledger. All balance reads and writes for the accounts it owns run
+ * on one dedicated thread, so balances live in a plain primitive map without locks. Commands are
+ * drained in batches; the batch's journal entries are fsynced once before any caller is answered.
+ */
+@Slf4j
+final class LedgerShard {
+
+    /**
+     * Loads the persisted balance of an account on first touch; {@code null} if the user does not exist.
+     */
+    interface BalanceLoader {
+        Long load(long userId);
+    }
+
+    private final int index;
+    private final AccountBalances balances = new AccountBalances(1024);
+    private final LedgerJournal journal;
+    private final BalanceLoader balanceLoader;
+    private final Consumer<List<LedgerEntry>> committedEntries;
+    private final AtomicLong sequence;
+    private final BlockingQueue<Command<?>> queue;
+    private final int maxBatchSize;
+    private final List<LedgerEntry> batchEntries = new ArrayList<>();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile RuntimeException failure;
+
+    LedgerShard(int index, LedgerJournal journal, BalanceLoader balanceLoader,
+                Consumer<List<LedgerEntry>> committedEntries, AtomicLong sequence,
+                int queueCapacity, int maxBatchSize) {
+        this.index = index;
+        this.journal = journal;
+        this.balanceLoader = balanceLoader;
+        this.committedEntries = committedEntries;
+        this.sequence = sequence;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.thread = new Thread(this::run, "ledger-shard-" + index);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    <T> CompletableFuture<T> submit(Function<LedgerShard, T> operation) {
+        Command<T> command = new Command<>(operation);
+        if (!running || failure != null) {
+            command.future.completeExceptionally(unavailable());
+            return command.future;
+        }
+        try {
+            queue.put(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.future.completeExceptionally(unavailable());
+            return command.future;
+        }
+        // The shard may have stopped or halted, and swept its queue, between the check and the put.
+        // Whoever removes the command from the queue completes it, so it is failed here only if
+        // neither the event loop nor the sweep took it
+        if ((!running || failure != null) && queue.remove(command)) {
+            command.future.completeExceptionally(unavailable());
+        }
+        return command.future;
+    }
+
+    /**
+     * Stops the shard after its balances went wrong in a way only a restart can repair; pending and
+     * later commands fail with 503. On startup the journal is projected and balances are reloaded
+     * from the database. May be called from any thread.
+     */
+    void halt(Throwable cause) {
+        if (failure == null) {
+            failure = cause instanceof RuntimeException e ? e : new IllegalStateException(cause);
+        }
+    }
+
+    void stop() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Command<?> command;
+        while ((command = queue.poll()) != null) {
+            command.future.completeExceptionally(unavailable());
+        }
+    }
+
+    // ---- operations, only ever invoked on the shard thread ----
+
+    long balanceOf(long userId) {
+        ensureLoaded(userId);
+        return balances.get(userId);
+    }
+
+    Void ensureLoaded(long userId) {
+        if (!balances.contains(userId)) {
+            Long balance = balanceLoader.load(userId);
+            if (balance == null) {
+                throw new ApiException("User not found", 404);
+            }
+            balances.put(userId, balance);
+        }
+        return null;
+    }
+
+    LedgerResult add(long userId, long amount) {
+        long newBalance = Math.addExact(balanceOf(userId), amount);
+        LedgerEntry entry = journal(LedgerEntry.Kind.ADD, 0, userId, amount);
+        balances.put(userId, newBalance);
+        return new LedgerResult(newBalance, entry.getSequence());
+    }
+
+    /**
+     * Transfer between two accounts owned by this shard: checked, journaled and applied in one step.
+     */
+    LedgerResult transfer(long fromUserId, long toUserId, long amount) {
+        long fromBalance = debitableBalance(fromUserId, amount);
+        long toBalance = Math.addExact(balanceOf(toUserId), amount);
+        LedgerEntry entry = journal(LedgerEntry.Kind.TRANSFER, fromUserId, toUserId, amount);
+        balances.put(fromUserId, fromBalance - amount);
+        balances.put(toUserId, toBalance);
+        return new LedgerResult(fromBalance - amount, entry.getSequence());
+    }
+
+    /**
+     * Sender leg of a cross-shard transfer. The entry journaled here is the durable record of the
+     * whole transfer; the recipient's shard applies the credit in memory afterwards.
+     */
+    LedgerResult debit(long fromUserId, long toUserId, long amount) {
+        long fromBalance = debitableBalance(fromUserId, amount);
+        LedgerEntry entry = journal(LedgerEntry.Kind.TRANSFER, fromUserId, toUserId, amount);
+        balances.put(fromUserId, fromBalance - amount);
+        return new LedgerResult(fromBalance - amount, entry.getSequence());
+    }
+
+    Void credit(long toUserId, long amount) {
+        balances.put(toUserId, Math.addExact(balances.get(toUserId), amount));
+        return null;
+    }
+
+    long totalBalance() {
+        return balances.total();
+    }
+
+    private long debitableBalance(long userId, long amount) {
+        long balance = balanceOf(userId);
+        if (balance < amount) {
+            log.warn("Insufficient balance for user {}. Balance: {}, Required: {}", userId, balance, amount);
+            throw ApiException.insufficientBalance();
+        }
+        return balance;
+    }
+
+    private LedgerEntry journal(LedgerEntry.Kind kind, long fromUserId, long toUserId, long amount) {
+        LedgerEntry entry = new LedgerEntry(sequence.incrementAndGet(), index, kind,
+                fromUserId, toUserId, amount, System.currentTimeMillis());
+        journal.append(entry);
+        batchEntries.add(entry);
+        return entry;
+    }
+
+    // ---- event loop ----
+
+    private void run() {
+        List<Command<?>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                if (failure != null) {
+                    log.error("Ledger shard {} is halted", index, failure);
+                    Command<?> command;
+                    while ((command = queue.poll()) != null) {
+                        command.future.completeExceptionally(unavailable());
+                    }
+                    return;
+                }
+                Command<?> first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+
+                for (Command<?> command : batch) {
+                    command.execute(this);
+                }
+                try {
+                    journal.commit();
+                } catch (RuntimeException e) {
+                    // Memory is now ahead of the journal; stop accepting work until restart and recovery
+                    log.error("Ledger shard {} failed to commit its journal and is halting", index, e);
+                    failure = e;
+                    batch.forEach(command -> command.future.completeExceptionally(unavailable()));
+                    return;
+                }
+                if (!batchEntries.isEmpty()) {
+                    committedEntries.accept(List.copyOf(batchEntries));
+                    batchEntries.clear();
+                }
+                batch.forEach(Command::complete);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (failure == null) {
+                journal.close();
+            }
+        }
+    }
+
+    private ApiException unavailable() {
+        return new ApiException("Ledger shard " + index + " is unavailable", 503);
+    }
+
+    private static final class Command<T> {
+        private final Function<LedgerShard, T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private RuntimeException error;
+
+        private Command(Function<LedgerShard, T> operation) {
+            this.operation = operation;
+        }
+
+        private void execute(LedgerShard shard) {
+            try {
+                result = operation.apply(shard);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
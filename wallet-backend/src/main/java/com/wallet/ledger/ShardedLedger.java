@@ -0,0 +1,168 @@
+package com.wallet.ledger;
+
+import com.wallet.exception.ApiException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory ledger engine enabled with {@code wallet.ledger.engine=sharded}. Accounts are hashed onto
+ * N single-threaded {@link LedgerShard}s which own their balances outright, so transfers need no
+ * database row locks. Every change is fsynced to a per-shard journal before it is acknowledged and
+ * is copied into the {@code users}/{@code transactions} tables asynchronously by {@link LedgerProjector}.
+ *
+ * <p>A cross-shard transfer runs in three steps: the recipient's shard loads the account, the
+ * sender's shard checks funds and journals the transfer, then the recipient's shard applies the
+ * credit. Loading the recipient first guarantees its in-memory balance never includes a credit that
+ * the projector has already written to the database.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.ledger.engine", havingValue = "sharded")
+@Slf4j
+public class ShardedLedger {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerProjector projector;
+    private final Path journalDirectory;
+    private final int shardCount;
+    private final long segmentMaxBytes;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LedgerShard[] shards;
+
+    public ShardedLedger(
+            JdbcTemplate jdbcTemplate,
+            LedgerProjector projector,
+            @Value("${wallet.ledger.journal-dir:ledger-journal}") String journalDirectory,
+            @Value("${wallet.ledger.shards:0}") int shardCount,
+            @Value("${wallet.ledger.segment-max-bytes:67108864}") long segmentMaxBytes,
+            @Value("${wallet.ledger.queue-capacity:65536}") int queueCapacity,
+            @Value("${wallet.ledger.max-batch-size:512}") int maxBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.projector = projector;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.shardCount = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostConstruct
+    void start() {
+        try {
+            Files.createDirectories(journalDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create ledger journal directory " + journalDirectory, e);
+        }
+
+        // Anything journaled but not yet projected before the last shutdown goes to the database first,
+        // so that balances loaded lazily from the users table are authoritative
+        List<LedgerEntry> unprojected = LedgerJournal.readAll(journalDirectory);
+        sequence.set(projector.replay(unprojected));
+        LedgerJournal.deleteAll(journalDirectory);
+
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            LedgerJournal journal = new LedgerJournal(journalDirectory, i, segmentMaxBytes);
+            projector.registerJournal(i, journal);
+            shards[i] = new LedgerShard(i, journal, this::loadBalance, projector::enqueue,
+                    sequence, queueCapacity, maxBatchSize);
+            shards[i].start();
+        }
+        log.info("Sharded ledger started with {} shards, journal at {}, {} entries replayed",
+                shardCount, journalDirectory.toAbsolutePath(), unprojected.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        // The journal is only redundant once nothing is queued or being projected
+        if (!projector.drain(() -> LedgerJournal.deleteAll(journalDirectory))) {
+            log.warn("Ledger projection did not finish, journal at {} is kept for replay",
+                    journalDirectory.toAbsolutePath());
+        }
+        log.info("Sharded ledger stopped at sequence {}", sequence.get());
+    }
+
+    public LedgerResult addMoney(long userId, long amount) {
+        return await(shardFor(userId).submit(shard -> shard.add(userId, amount)));
+    }
+
+    public LedgerResult transfer(long fromUserId, long toUserId, long amount) {
+        LedgerShard fromShard = shardFor(fromUserId);
+        LedgerShard toShard = shardFor(toUserId);
+        if (fromShard == toShard) {
+            return await(fromShard.submit(shard -> shard.transfer(fromUserId, toUserId, amount)));
+        }
+
+        await(toShard.submit(shard -> shard.ensureLoaded(toUserId)));
+        LedgerResult result = await(fromShard.submit(shard -> shard.debit(fromUserId, toUserId, amount)));
+        // The transfer is durable at this point; the credit leg only updates memory. Should it fail,
+        // the recipient's balance would stay below the journal's and let later debits be checked
+        // against it, so the recipient's shard halts until a restart reloads its balances
+        toShard.submit(shard -> shard.credit(toUserId, amount))
+                .exceptionally(e -> {
+                    log.error("Failed to apply credit of {} to user {} for ledger entry {}, halting its shard",
+                            amount, toUserId, result.getSequence(), e);
+                    toShard.halt(e);
+                    return null;
+                });
+        return result;
+    }
+
+    public long balance(long userId) {
+        return await(shardFor(userId).submit(shard -> shard.balanceOf(userId)));
+    }
+
+    /**
+     * Sum of every loaded balance across all shards, for invariant checks.
+     */
+    public long totalBalance() {
+        long total = 0;
+        for (LedgerShard shard : shards) {
+            total += await(shard.submit(LedgerShard::totalBalance));
+        }
+        return total;
+    }
+
+    private LedgerShard shardFor(long userId) {
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return shards[(int) Math.floorMod(mixed ^ (mixed >>> 32), (long) shards.length)];
+    }
+
+    private Long loadBalance(long userId) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT u.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM balance_slots s WHERE s.user_id = u.id) " +
+                        "FROM users u WHERE u.id = ?", BigDecimal.class, userId);
+        return balances.isEmpty() ? null : MinorUnits.fromDecimal(balances.get(0));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ApiException("Ledger operation failed", 500);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * One of the sub-balances of a hot account. Credits to the account land on a random slot instead of
+ * the {@code users} row; the account's balance is the row's balance plus all of its slots.
+ */
+@Entity
+@Table(name = "balance_slots")
+@IdClass(BalanceSlot.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSlot {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private Integer slot;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal balance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Integer slot;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One flushed batch of cache invalidations, written by an instance for the others to poll. The
+ * time-ordered id doubles as the send time, so polls and purges are primary key range scans.
+ */
+@Entity
+@Table(name = "cache_invalidations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    // JSON object of cache name to the keys to drop
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+}
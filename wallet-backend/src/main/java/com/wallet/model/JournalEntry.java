@@ -0,0 +1,45 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Double-entry record of a money movement: one immutable row per transfer instead of mirrored
+ * SEND/RECEIVE {@link Transaction} rows. Money added from outside the wallet has no debit account.
+ */
+@Entity
+@Immutable
+@Table(name = "journal_entries", indexes = {
+        @Index(name = "idx_journal_entries_debit_created_id", columnList = "debit_user_id, created_at, id"),
+        @Index(name = "idx_journal_entries_credit_created_id", columnList = "credit_user_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntry {
+
+    @Id
+    @TimeOrderedId
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "debit_user_id")
+    private User debitUser;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "credit_user_id", nullable = false)
+    private User creditUser;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private Money amount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Highest ledger journal sequence of a shard that has been projected into the database. Updated in the
+ * same transaction as the projected rows, so replay after a crash never applies an entry twice.
+ */
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+
+    @Id
+    private Integer shard;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
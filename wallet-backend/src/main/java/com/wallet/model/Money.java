@@ -0,0 +1,147 @@
+package com.wallet.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.wallet.exception.ApiException;
+import com.wallet.ledger.MinorUnits;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Immutable amount of money held as a {@code long} count of minor units (cents). Arithmetic and
+ * comparisons work on the primitive and fail with {@link ArithmeticException} on overflow instead
+ * of wrapping. Persisted as a {@code DECIMAL} column through {@link MoneyConverter} and written to
+ * JSON as the same two-decimal number {@code BigDecimal} amounts produced.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long UNITS_PER_MAJOR = 100;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * @throws ApiException if the amount has more than two decimal places or does not fit a {@code long}
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinor(MinorUnits.fromDecimal(amount));
+    }
+
+    public static Money parse(String amount) {
+        try {
+            return of(new BigDecimal(amount));
+        } catch (NumberFormatException e) {
+            throw new ApiException("Invalid amount: " + amount);
+        }
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public BigDecimal toDecimal() {
+        return MinorUnits.toDecimal(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * Plain two-decimal form, e.g. {@code 12.50} or {@code -0.05}, without going through {@link BigDecimal}.
+     */
+    @Override
+    public String toString() {
+        long major = minorUnits / UNITS_PER_MAJOR;
+        long minor = Math.abs(minorUnits % UNITS_PER_MAJOR);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(Math.abs(major)).append('.');
+        if (minor < 10) {
+            text.append('0');
+        }
+        return text.append(minor).toString();
+    }
+
+    public static final class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.toString());
+        }
+    }
+
+    public static final class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            try {
+                JsonToken token = p.currentToken();
+                if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT) {
+                    return ofMinor(p.getIntValue() * UNITS_PER_MAJOR);
+                }
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    return of(p.getDecimalValue());
+                }
+                if (token == JsonToken.VALUE_STRING) {
+                    return parse(p.getText().trim());
+                }
+            } catch (ApiException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), e.getMessage());
+            }
+            return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+        }
+    }
+}
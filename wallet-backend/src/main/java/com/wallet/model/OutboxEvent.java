@@ -0,0 +1,42 @@
+package com.wallet.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Event for downstream systems, written in the same database transaction as the change it
+ * describes and removed once the relay has delivered it. The time-ordered id is the event id
+ * consumers deduplicate on.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        // Serves the relay's claim of the oldest events that are due
+        @Index(name = "idx_outbox_events_available_at_id", columnList = "available_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    // Epoch millis before which no relay may claim the event: creation, a claim lease or a retry backoff
+    @Column(name = "available_at", nullable = false)
+    private Long availableAt;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,33 @@
+package com.wallet.model;
+
+import com.wallet.config.IdGenerator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Hibernate builds this generator through Spring's bean container, so it is wired with the
+ * {@link IdGenerator} of the application context that owns the session factory: JPA and JDBC
+ * inserts of one instance share a node id and sequence even when several contexts run in one JVM.
+ */
+public class TimeOrderedIdentifierGenerator implements BeforeExecutionGenerator {
+
+    private final IdGenerator idGenerator;
+
+    public TimeOrderedIdentifierGenerator(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return idGenerator.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
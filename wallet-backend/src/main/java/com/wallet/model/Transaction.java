@@ -6,18 +6,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Serves keyset pagination of a user's history ordered by (timestamp, id)
+        @Index(name = "idx_transactions_user_timestamp_id", columnList = "user_id, timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,7 +31,7 @@ public class Transaction {
     private TransactionType type;
     
     @Column(nullable = false, precision = 16, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "to_user_id")
@@ -4,13 +4,17 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Balances change through relative SQL updates; writing only dirty columns keeps an entity save
+// (e.g. a password change) from overwriting a balance that moved after the entity was loaded
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -18,7 +22,7 @@ import java.util.List;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(nullable = false, length = 100)
@@ -31,8 +35,14 @@ public class User {
     private String password;
     
     @Column(nullable = false, precision = 16, scale = 2)
-    private BigDecimal balance = BigDecimal.ZERO;
-    
+    private Money balance = Money.ZERO;
+
+    // Hot accounts take credits on sub-balance slots to spread row-lock contention; their spendable
+    // balance is this row's plus the slots', see HotAccountRegistry#spendableBalance
+    @ColumnDefault("false")
+    @Column(name = "hot_account", nullable = false)
+    private boolean hotAccount;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
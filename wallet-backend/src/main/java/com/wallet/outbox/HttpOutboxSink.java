@@ -0,0 +1,68 @@
+package com.wallet.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as one JSON array of {@code {"id", "type", "payload"}} objects to
+ * {@code wallet.outbox.http.url}. Any status other than 2xx, a timeout or a connection failure
+ * fails the whole batch, which the relay then retries.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+
+    public HttpOutboxSink(
+            ObjectMapper objectMapper,
+            @Value("${wallet.outbox.http.url}") URI url,
+            @Value("${wallet.outbox.http.timeout-ms:5000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        HttpResponse<Void> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(url)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(messages)))
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise outbox batch", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Outbox endpoint " + url + " unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering outbox batch", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Outbox endpoint " + url + " answered " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wallet.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes events to the application log, for development and for checking what the relay would send.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.outbox.sink", havingValue = "log")
+@Slf4j
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        messages.forEach(message -> log.info("Outbox event {} {}: {}", message.id(), message.type(), message.payload()));
+    }
+}
@@ -0,0 +1,12 @@
+package com.wallet.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * An outbox event as handed to an {@link OutboxSink}.
+ *
+ * @param id unique, time-ordered event id; a redelivered event keeps it
+ * @param payload the event body as JSON
+ */
+public record OutboxMessage(long id, String type, @JsonRawValue String payload) {
+}
@@ -0,0 +1,154 @@
+package com.wallet.outbox;
+
+import com.wallet.config.IdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivers {@code outbox_events} to the configured {@link OutboxSink} in batches, off the request
+ * path. A batch is claimed in a short transaction with {@code FOR UPDATE SKIP LOCKED}, which lets
+ * several instances relay at once without taking the same rows, and claimed rows are leased for
+ * {@code lease-ms} so no database transaction stays open while the sink is called. Delivered rows
+ * are deleted; a failed batch is pushed back with exponential backoff and jitter per event, and is
+ * retried until it goes through. Each poll keeps claiming while it gets full batches.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String CLAIM = "SELECT id, event_type, payload, attempts FROM outbox_events " +
+            "WHERE available_at <= ? ORDER BY available_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String LEASE = "UPDATE outbox_events SET available_at = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM outbox_events WHERE id = ?";
+    private static final String RESCHEDULE =
+            "UPDATE outbox_events SET attempts = ?, available_at = ?, last_error = ? WHERE id = ?";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxSink sink;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Timer lag;
+    private final int batchSize;
+    private final long leaseMs;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public OutboxRelay(
+            ObjectProvider<OutboxSink> sink,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.outbox.batch-size:100}") int batchSize,
+            @Value("${wallet.outbox.lease-ms:30000}") long leaseMs,
+            @Value("${wallet.outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+            @Value("${wallet.outbox.max-backoff-ms:60000}") long maxBackoffMs) {
+        this.sink = sink.getIfAvailable();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        String sinkName = this.sink != null ? this.sink.name() : "none";
+        this.delivered = Counter.builder("wallet.outbox.delivered")
+                .description("Events accepted by the sink")
+                .tag("sink", sinkName)
+                .register(meterRegistry);
+        this.failed = Counter.builder("wallet.outbox.failed")
+                .description("Events in batches the sink rejected, each retried later")
+                .tag("sink", sinkName)
+                .register(meterRegistry);
+        this.lag = Timer.builder("wallet.outbox.lag")
+                .description("Time from an event being written to it being accepted by the sink")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval-ms:100}")
+    public void relay() {
+        if (sink == null) {
+            return;
+        }
+        while (relayBatch() == batchSize) {
+            log.debug("Outbox batch was full, claiming the next one");
+        }
+    }
+
+    /**
+     * @return number of events delivered, 0 when none were due or the batch failed
+     */
+    int relayBatch() {
+        List<Claimed> batch = transactionTemplate.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<OutboxMessage> messages = batch.stream().map(Claimed::message).toList();
+        try {
+            sink.deliver(messages);
+        } catch (RuntimeException e) {
+            log.warn("Delivery of {} outbox events to {} failed, backing off: {}", batch.size(), sink.name(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> reschedule(batch, e));
+            failed.increment(batch.size());
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(DELETE, messages.stream().map(message -> new Object[]{message.id()}).toList());
+
+        long now = System.currentTimeMillis();
+        for (OutboxMessage message : messages) {
+            lag.record(Duration.ofMillis(Math.max(0, now - IdGenerator.epochMillisOf(message.id()))));
+        }
+        delivered.increment(messages.size());
+        return messages.size();
+    }
+
+    private List<Claimed> claim() {
+        long now = System.currentTimeMillis();
+        List<Claimed> batch = jdbcTemplate.query(CLAIM, (rs, rowNum) -> new Claimed(
+                new OutboxMessage(rs.getLong("id"), rs.getString("event_type"), rs.getString("payload")),
+                rs.getInt("attempts")), now, batchSize);
+        List<Object[]> leases = new ArrayList<>(batch.size());
+        batch.forEach(claimed -> leases.add(new Object[]{now + leaseMs, claimed.message().id()}));
+        jdbcTemplate.batchUpdate(LEASE, leases);
+        return batch;
+    }
+
+    private void reschedule(List<Claimed> batch, RuntimeException failure) {
+        String error = String.valueOf(failure.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Claimed claimed : batch) {
+            int attempts = claimed.attempts() + 1;
+            rows.add(new Object[]{attempts, now + backoff(attempts), error, claimed.message().id()});
+        }
+        jdbcTemplate.batchUpdate(RESCHEDULE, rows);
+    }
+
+    /**
+     * Between half and all of the exponential ceiling, so events failed together spread out
+     * without ever coming back immediately.
+     */
+    private long backoff(int attempts) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private record Claimed(OutboxMessage message, int attempts) {
+    }
+}
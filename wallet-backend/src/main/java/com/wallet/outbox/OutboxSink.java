@@ -0,0 +1,22 @@
+package com.wallet.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events, chosen with {@code wallet.outbox.sink}. Delivery is
+ * at-least-once: a batch is retried whole when {@link #deliver} throws, and an event can also be
+ * redelivered after a relay dies between delivering and deleting it, so consumers deduplicate on
+ * {@link OutboxMessage#id()}.
+ */
+public interface OutboxSink {
+
+    /**
+     * Metric tag naming the sink.
+     */
+    String name();
+
+    /**
+     * Hands over a batch, oldest first; returning normally means every event was accepted.
+     */
+    void deliver(List<OutboxMessage> messages);
+}
@@ -0,0 +1,21 @@
+package com.wallet.outbox;
+
+import com.wallet.model.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload of a {@code transaction} outbox event: one money movement, however many history rows the
+ * {@link com.wallet.repository.TransactionStore} kept for it.
+ *
+ * @param fromUserId sender, or {@code null} for money added from outside the wallet
+ * @param fromTransactionId id of the movement in the sender's history, or {@code null}
+ * @param toTransactionId id of the movement in the recipient's history
+ */
+public record TransactionEvent(Kind kind, Long fromUserId, Long toUserId, Money amount, LocalDateTime timestamp,
+                               Long fromTransactionId, Long toTransactionId) {
+
+    public enum Kind {
+        ADD, TRANSFER
+    }
+}
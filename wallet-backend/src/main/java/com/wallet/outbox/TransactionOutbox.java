@@ -0,0 +1,77 @@
+package com.wallet.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.config.IdGenerator;
+import com.wallet.repository.TransactionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a {@link TransactionEvent} for every recorded money movement into {@code outbox_events},
+ * inside the caller's transaction: an event exists exactly when its movement committed, and the
+ * request pays for one more batched insert instead of a call to a downstream system. The
+ * {@link OutboxRelay} delivers the events afterwards. With {@code wallet.outbox.sink=none} nothing
+ * is written.
+ */
+@Component
+public class TransactionOutbox {
+
+    static final String TYPE = "transaction";
+
+    private static final String INSERT =
+            "INSERT INTO outbox_events (id, event_type, payload, available_at, attempts) VALUES (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public TransactionOutbox(
+            JdbcTemplate jdbcTemplate,
+            IdGenerator idGenerator,
+            ObjectMapper objectMapper,
+            @Value("${wallet.outbox.sink:none}") String sink) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+        this.enabled = !"none".equals(sink);
+    }
+
+    public void append(TransactionStore.Posting posting, TransactionStore.Recorded recorded) {
+        appendAll(List.of(posting), List.of(recorded));
+    }
+
+    /**
+     * @param recorded where each posting was stored, in the same order
+     */
+    public void appendAll(List<TransactionStore.Posting> postings, List<TransactionStore.Recorded> recorded) {
+        if (!enabled || postings.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>(postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            TransactionStore.Posting posting = postings.get(i);
+            TransactionStore.Recorded stored = recorded.get(i);
+            TransactionEvent event = new TransactionEvent(
+                    posting.getFromUserId() == null ? TransactionEvent.Kind.ADD : TransactionEvent.Kind.TRANSFER,
+                    posting.getFromUserId(), posting.getToUserId(), posting.getAmount(), stored.timestamp(),
+                    stored.fromRowId(), stored.toRowId());
+            rows.add(new Object[]{idGenerator.nextId(), TYPE, serialise(event), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    private String serialise(TransactionEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise transaction event", e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.wallet.repository;
+
+import com.wallet.config.IdGenerator;
+import com.wallet.dto.TransactionDto;
+import com.wallet.model.JournalEntry;
+import com.wallet.model.Money;
+import com.wallet.model.Transaction;
+import com.wallet.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stores each money movement once in {@code journal_entries} with its debit and credit account.
+ * A user's history is the union of the entries they were debited by (SEND) and credited by
+ * (RECEIVE, or ADD when there is no debit side); each half is an index range scan on its own
+ * {@code (user, created_at, id)} index, trimmed to the page before the merge.
+ */
+@Repository
+@ConditionalOnProperty(name = "wallet.transactions.storage", havingValue = "double-entry")
+@Slf4j
+public class DoubleEntryTransactionStore implements TransactionStore {
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO journal_entries (id, debit_user_id, credit_user_id, amount, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String ENTRY_COLUMNS = "SELECT id, debit_user_id, credit_user_id, amount, created_at FROM journal_entries ";
+    private static final String BEFORE = "AND (created_at < ? OR (created_at = ? AND id < ?)) ";
+    private static final String NEWEST_FIRST = "ORDER BY created_at DESC, id DESC LIMIT ?";
+    private static final String LATEST_ID = "SELECT e.id FROM (" +
+            "(SELECT id, created_at FROM journal_entries WHERE debit_user_id = ? ORDER BY created_at DESC, id DESC LIMIT 1) " +
+            "UNION ALL " +
+            "(SELECT id, created_at FROM journal_entries WHERE credit_user_id = ? ORDER BY created_at DESC, id DESC LIMIT 1)" +
+            ") e ORDER BY e.created_at DESC, e.id DESC LIMIT 1";
+
+    // Copies history written by the mirrored layout; RECEIVE rows are the mirror of a SEND and are
+    // skipped, so the recipient's side of a transfer takes the SEND row's id and timestamp
+    private static final String MIGRATE_FROM_TRANSACTIONS =
+            "INSERT INTO journal_entries (id, debit_user_id, credit_user_id, amount, created_at) " +
+            "SELECT t.id, " +
+            "CASE WHEN t.type = 'SEND' THEN t.user_id END, " +
+            "CASE WHEN t.type = 'SEND' THEN t.to_user_id ELSE t.user_id END, " +
+            "t.amount, t.timestamp FROM transactions t " +
+            "WHERE t.type IN ('ADD', 'SEND') " +
+            "AND NOT EXISTS (SELECT 1 FROM journal_entries j WHERE j.id = t.id)";
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+    private final boolean migrateOnStartup;
+
+    public DoubleEntryTransactionStore(
+            JournalEntryRepository journalEntryRepository,
+            JdbcTemplate jdbcTemplate,
+            IdGenerator idGenerator,
+            @Value("${wallet.transactions.migrate-on-startup:true}") boolean migrateOnStartup) {
+        this.journalEntryRepository = journalEntryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrateFromTransactions();
+        }
+    }
+
+    /**
+     * Copies ADD and SEND rows from {@code transactions} that have no journal entry yet, keeping
+     * their ids. Safe to run repeatedly.
+     *
+     * <p>RECEIVE rows are not copied; the transfer they mirror becomes one entry with the SEND row's
+     * id. In a recipient's history every received transfer therefore changes id: ids stored by
+     * clients no longer resolve, a history cursor ending on a received transfer may repeat or skip
+     * that entry on the next page, and cached ETags stop matching once.
+     *
+     * @return number of entries created
+     */
+    public int migrateFromTransactions() {
+        int migrated = jdbcTemplate.update(MIGRATE_FROM_TRANSACTIONS);
+        if (migrated > 0) {
+            log.info("Migrated {} transactions rows into journal_entries", migrated);
+        }
+        return migrated;
+    }
+
+    @Override
+    public Recorded recordAdd(User user, Money amount) {
+        // The creation timestamp is only assigned when the row is inserted
+        JournalEntry entry = journalEntryRepository.saveAndFlush(new JournalEntry(null, null, user, amount, null));
+        return new Recorded(null, entry.getId(), entry.getCreatedAt());
+    }
+
+    @Override
+    public Recorded recordTransfer(User fromUser, User toUser, Money amount) {
+        JournalEntry entry = journalEntryRepository.saveAndFlush(new JournalEntry(null, fromUser, toUser, amount, null));
+        return new Recorded(entry.getId(), entry.getId(), entry.getCreatedAt());
+    }
+
+    @Override
+    public List<Recorded> recordAll(List<Posting> postings) {
+        List<Object[]> rows = new ArrayList<>(postings.size());
+        List<Recorded> recorded = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            long id = idGenerator.nextId();
+            recorded.add(new Recorded(posting.getFromUserId() == null ? null : id, id, posting.getTimestamp()));
+            rows.add(new Object[]{id, posting.getFromUserId(), posting.getToUserId(), posting.getAmount().toDecimal(),
+                    Timestamp.valueOf(posting.getTimestamp())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+        return recorded;
+    }
+
+    @Override
+    public Page<TransactionDto> findHistory(Long userId, Pageable pageable) {
+        // Each half must supply every row up to the end of the requested page
+        int limit = (int) pageable.getOffset() + pageable.getPageSize();
+        List<TransactionDto> content = jdbcTemplate.query(
+                historyQuery("", "", " OFFSET ?"), historyMapper(userId),
+                userId, limit, userId, limit, pageable.getPageSize(), pageable.getOffset());
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM journal_entries WHERE debit_user_id = ?) + " +
+                        "(SELECT COUNT(*) FROM journal_entries WHERE credit_user_id = ?)",
+                Long.class, userId, userId);
+        return new PageImpl<>(content, pageable, total != null ? total : 0);
+    }
+
+    @Override
+    public List<TransactionDto> findLatestHistory(Long userId, int limit) {
+        return jdbcTemplate.query(historyQuery("", "", ""), historyMapper(userId),
+                userId, limit, userId, limit, limit);
+    }
+
+    @Override
+    public List<TransactionDto> findHistoryBefore(Long userId, LocalDateTime timestamp, Long id, int limit) {
+        Timestamp before = Timestamp.valueOf(timestamp);
+        return jdbcTemplate.query(historyQuery(BEFORE, BEFORE, ""), historyMapper(userId),
+                userId, before, before, id, limit, userId, before, before, id, limit, limit);
+    }
+
+    @Override
+    public long findLatestId(Long userId) {
+        List<Long> ids = jdbcTemplate.queryForList(LATEST_ID, Long.class, userId, userId);
+        return ids.isEmpty() ? 0 : ids.get(0);
+    }
+
+    @Override
+    public void streamHistory(Long userId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                              Consumer<TransactionDto> consumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        String debitRange = ForwardCursor.rangeFilter("created_at", from, to, args);
+        args.add(userId);
+        String creditRange = ForwardCursor.rangeFilter("created_at", from, to, args);
+        String sql = "SELECT e.id, e.debit_user_id, e.amount, e.created_at, d.email AS debit_email, c.email AS credit_email FROM (" +
+                "(" + ENTRY_COLUMNS + "WHERE debit_user_id = ? " + debitRange + ") " +
+                "UNION ALL " +
+                "(" + ENTRY_COLUMNS + "WHERE credit_user_id = ? " + creditRange + ")" +
+                ") e " +
+                "LEFT JOIN users d ON d.id = e.debit_user_id " +
+                "JOIN users c ON c.id = e.credit_user_id " +
+                "ORDER BY e.created_at, e.id";
+        RowMapper<TransactionDto> mapper = historyMapper(userId);
+        ForwardCursor.stream(jdbcTemplate, sql, args, fetchSize, rs -> consumer.accept(mapper.mapRow(rs, 0)));
+    }
+
+    private static String historyQuery(String debitFilter, String creditFilter, String offset) {
+        return "SELECT e.id, e.debit_user_id, e.amount, e.created_at, d.email AS debit_email, c.email AS credit_email FROM (" +
+                "(" + ENTRY_COLUMNS + "WHERE debit_user_id = ? " + debitFilter + NEWEST_FIRST + ") " +
+                "UNION ALL " +
+                "(" + ENTRY_COLUMNS + "WHERE credit_user_id = ? " + creditFilter + NEWEST_FIRST + ")" +
+                ") e " +
+                "LEFT JOIN users d ON d.id = e.debit_user_id " +
+                "JOIN users c ON c.id = e.credit_user_id " +
+                "ORDER BY e.created_at DESC, e.id DESC LIMIT ?" + offset;
+    }
+
+    private static RowMapper<TransactionDto> historyMapper(Long userId) {
+        return (rs, rowNum) -> {
+            long debitUserId = rs.getLong("debit_user_id");
+            boolean external = rs.wasNull();
+            Transaction.TransactionType type;
+            String counterparty;
+            if (!external && debitUserId == userId) {
+                type = Transaction.TransactionType.SEND;
+                counterparty = rs.getString("credit_email");
+            } else if (external) {
+                type = Transaction.TransactionType.ADD;
+                counterparty = null;
+            } else {
+                type = Transaction.TransactionType.RECEIVE;
+                counterparty = rs.getString("debit_email");
+            }
+            return new TransactionDto(rs.getLong("id"), type, Money.of(rs.getBigDecimal("amount")), counterparty,
+                    rs.getTimestamp("created_at").toLocalDateTime());
+        };
+    }
+}
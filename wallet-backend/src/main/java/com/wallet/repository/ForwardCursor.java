@@ -0,0 +1,49 @@
+package com.wallet.repository;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Runs a query as a forward-only, read-only cursor that fetches {@code fetchSize} rows per round
+ * trip and hands each row to the callback as it arrives, so memory use does not grow with the
+ * result. MySQL only honours the fetch size with {@code useCursorFetch=true} on the JDBC URL.
+ */
+final class ForwardCursor {
+
+    private ForwardCursor() {
+    }
+
+    static void stream(JdbcTemplate jdbcTemplate, String sql, List<Object> args, int fetchSize,
+                       RowCallbackHandler rowHandler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement =
+                    connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(statement);
+            return statement;
+        }, rowHandler);
+    }
+
+    /**
+     * Appends {@code from <= column < to} conditions for the bounds that are set.
+     */
+    static String rangeFilter(String column, LocalDateTime from, LocalDateTime to, List<Object> args) {
+        StringBuilder filter = new StringBuilder();
+        if (from != null) {
+            filter.append("AND ").append(column).append(" >= ? ");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            filter.append("AND ").append(column).append(" < ? ");
+            args.add(Timestamp.valueOf(to));
+        }
+        return filter.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.wallet.repository;
+
+import com.wallet.model.Money;
+import com.wallet.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Accounts flagged as hot, whose balance is spread over {@code wallet.hot-accounts.slots} rows of
+ * {@code balance_slots}. Credits pick a random slot, so concurrent payers of the same merchant rarely
+ * wait on each other; debits and the periodic consolidation sweep the slots back into the
+ * {@code users} row. Only active when {@code wallet.hot-accounts.enabled} is set.
+ */
+@Component
+@Slf4j
+public class HotAccountRegistry {
+
+    private static final String CREDIT_SLOT =
+            "UPDATE balance_slots SET balance = balance + ? WHERE user_id = ? AND slot = ?";
+    private static final String CREATE_SLOT =
+            "INSERT INTO balance_slots (user_id, slot, balance) SELECT ?, ?, 0 FROM users WHERE id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM balance_slots WHERE user_id = ? AND slot = ?)";
+    private static final String LOCK_SLOTS =
+            "SELECT slot, balance FROM balance_slots WHERE user_id = ? ORDER BY slot FOR UPDATE";
+    private static final String DRAIN_SLOT =
+            "UPDATE balance_slots SET balance = balance - ? WHERE user_id = ? AND slot = ?";
+    private static final String SUM_SLOTS = "SELECT COALESCE(SUM(balance), 0) FROM balance_slots WHERE user_id = ?";
+    private static final String ADD_TO_ROW = "UPDATE users SET balance = balance + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int slots;
+
+    private volatile Set<Long> hotAccountIds = Set.of();
+
+    public HotAccountRegistry(
+            JdbcTemplate jdbcTemplate,
+            @Value("${wallet.hot-accounts.enabled:false}") boolean enabled,
+            @Value("${wallet.hot-accounts.slots:8}") int slots) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.slots = slots;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isHot(Long userId) {
+        return hotAccountIds.contains(userId);
+    }
+
+    public Set<Long> getHotAccountIds() {
+        return hotAccountIds;
+    }
+
+    /**
+     * Spendable balance of a loaded account: its row balance plus whatever its slots still hold.
+     * Only accounts flagged hot have slots, so any other account costs no query.
+     */
+    public Money spendableBalance(User user) {
+        if (!user.isHotAccount()) {
+            return user.getBalance();
+        }
+        return user.getBalance().plus(slotBalance(user.getId()));
+    }
+
+    /**
+     * What the account's slots hold in total, not yet swept into its row.
+     */
+    public Money slotBalance(Long userId) {
+        return Money.of(jdbcTemplate.queryForObject(SUM_SLOTS, BigDecimal.class, userId));
+    }
+
+    /**
+     * Reloads the flagged accounts, picking up accounts flagged by other instances.
+     */
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        hotAccountIds = Set.copyOf(jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE hot_account = TRUE", Long.class));
+    }
+
+    /**
+     * Creates the account's slots, then flags it. Safe to call for an account that is already hot.
+     *
+     * @return false if the account does not exist
+     */
+    public boolean markHot(Long userId) {
+        if (!enabled) {
+            return false;
+        }
+        List<Object[]> rows = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            rows.add(new Object[]{userId, slot, userId, userId, slot});
+        }
+        jdbcTemplate.batchUpdate(CREATE_SLOT, rows);
+        if (jdbcTemplate.update("UPDATE users SET hot_account = TRUE WHERE id = ?", userId) == 0) {
+            return false;
+        }
+
+        Set<Long> ids = new HashSet<>(hotAccountIds);
+        ids.add(userId);
+        hotAccountIds = Set.copyOf(ids);
+        log.info("Account {} is now hot with {} balance slots", userId, slots);
+        return true;
+    }
+
+    /**
+     * Credits a random slot of the account.
+     *
+     * @return false if the slot does not exist, in which case the caller credits the row itself
+     */
+    public boolean creditSlot(Long userId, Money amount) {
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        return jdbcTemplate.update(CREDIT_SLOT, amount.toDecimal(), userId, slot) == 1;
+    }
+
+    /**
+     * Moves every slot's balance into the account row. Slots stay locked until the surrounding
+     * transaction ends, so concurrent sweeps cannot move the same money twice.
+     *
+     * @return the amount moved
+     */
+    public Money sweep(Long userId) {
+        List<Object[]> drains = new ArrayList<>(slots);
+        BigDecimal[] total = {BigDecimal.ZERO};
+        jdbcTemplate.query(LOCK_SLOTS, rs -> {
+            BigDecimal balance = rs.getBigDecimal("balance");
+            if (balance.signum() != 0) {
+                drains.add(new Object[]{balance, userId, rs.getInt("slot")});
+                total[0] = total[0].add(balance);
+            }
+        }, userId);
+
+        if (!drains.isEmpty()) {
+            jdbcTemplate.batchUpdate(DRAIN_SLOT, drains);
+            jdbcTemplate.update(ADD_TO_ROW, total[0], userId);
+        }
+        return Money.of(total[0]);
+    }
+}
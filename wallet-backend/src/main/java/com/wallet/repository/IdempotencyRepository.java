@@ -0,0 +1,51 @@
+package com.wallet.repository;
+
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Durable side of the idempotency store, on the {@code idempotency_keys} table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyRepository {
+
+    private static final String INSERT =
+            "INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, balance, transaction_id, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String FIND =
+            "SELECT request_hash, balance, transaction_id FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Joins the caller's transaction, if any.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the key was already recorded
+     */
+    public void insert(Long userId, String key, String requestHash, WalletResponse response) {
+        jdbcTemplate.update(INSERT, userId, key, requestHash, response.getBalance().toDecimal(),
+                response.getTransactionId(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public Optional<StoredResponse> find(Long userId, String key) {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"),
+                        new WalletResponse(true, Money.of(rs.getBigDecimal("balance")),
+                                rs.getObject("transaction_id", Long.class))),
+                userId, key).stream().findFirst();
+    }
+
+    public int deleteOlderThan(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", Timestamp.valueOf(cutoff));
+    }
+
+    public record StoredResponse(String requestHash, WalletResponse response) {
+    }
+}
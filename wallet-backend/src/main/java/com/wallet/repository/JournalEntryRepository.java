@@ -0,0 +1,9 @@
+package com.wallet.repository;
+
+import com.wallet.model.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+}
@@ -0,0 +1,153 @@
+package com.wallet.repository;
+
+import com.wallet.config.IdGenerator;
+import com.wallet.dto.TransactionDto;
+import com.wallet.model.Money;
+import com.wallet.model.Transaction;
+import com.wallet.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Original storage layout: every transfer is written twice to {@code transactions}, as a SEND row
+ * for the sender and a RECEIVE row for the recipient, so history is a plain per-user range scan.
+ */
+@Repository
+@ConditionalOnProperty(name = "wallet.transactions.storage", havingValue = "mirrored", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MirroredTransactionStore implements TransactionStore {
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, user_id, type, amount, to_user_id, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String STREAM_HISTORY_SELECT =
+            "SELECT t.id, t.type, t.amount, c.email AS counterparty_email, t.timestamp FROM transactions t " +
+            "LEFT JOIN users c ON c.id = t.to_user_id ";
+
+    private static final String LATEST_ID =
+            "SELECT id FROM transactions WHERE user_id = ? ORDER BY timestamp DESC, id DESC LIMIT 1";
+
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+
+    @Override
+    public Recorded recordAdd(User user, Money amount) {
+        Transaction add = transactionRepository.save(newTransaction(user, Transaction.TransactionType.ADD, amount, null));
+        // The creation timestamp is only assigned when the row is inserted
+        transactionRepository.flush();
+        return new Recorded(null, add.getId(), add.getTimestamp());
+    }
+
+    @Override
+    public Recorded recordTransfer(User fromUser, User toUser, Money amount) {
+        Transaction send = transactionRepository.save(
+                newTransaction(fromUser, Transaction.TransactionType.SEND, amount, toUser));
+        Transaction receive = transactionRepository.save(
+                newTransaction(toUser, Transaction.TransactionType.RECEIVE, amount, fromUser));
+        transactionRepository.flush();
+        return new Recorded(send.getId(), receive.getId(), send.getTimestamp());
+    }
+
+    @Override
+    public List<Recorded> recordAll(List<Posting> postings) {
+        List<Object[]> rows = new ArrayList<>(postings.size() * 2);
+        List<Recorded> recorded = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            Timestamp timestamp = Timestamp.valueOf(posting.getTimestamp());
+            long id = idGenerator.nextId();
+            if (posting.getFromUserId() == null) {
+                rows.add(new Object[]{id, posting.getToUserId(), Transaction.TransactionType.ADD, posting.getAmount(), null, timestamp});
+                recorded.add(new Recorded(null, id, posting.getTimestamp()));
+            } else {
+                long receiveId = idGenerator.nextId();
+                rows.add(new Object[]{id, posting.getFromUserId(), Transaction.TransactionType.SEND, posting.getAmount(), posting.getToUserId(), timestamp});
+                rows.add(new Object[]{receiveId, posting.getToUserId(), Transaction.TransactionType.RECEIVE, posting.getAmount(), posting.getFromUserId(), timestamp});
+                recorded.add(new Recorded(id, receiveId, posting.getTimestamp()));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] row = rows.get(i);
+                ps.setLong(1, (Long) row[0]);
+                ps.setLong(2, (Long) row[1]);
+                ps.setString(3, ((Transaction.TransactionType) row[2]).name());
+                ps.setBigDecimal(4, ((Money) row[3]).toDecimal());
+                if (row[4] != null) {
+                    ps.setLong(5, (Long) row[4]);
+                } else {
+                    ps.setNull(5, Types.BIGINT);
+                }
+                ps.setTimestamp(6, (Timestamp) row[5]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        return recorded;
+    }
+
+    @Override
+    public Page<TransactionDto> findHistory(Long userId, Pageable pageable) {
+        return transactionRepository.findHistoryByUserId(userId, pageable);
+    }
+
+    @Override
+    public List<TransactionDto> findLatestHistory(Long userId, int limit) {
+        return transactionRepository.findLatestHistoryByUserId(userId, Limit.of(limit));
+    }
+
+    @Override
+    public List<TransactionDto> findHistoryBefore(Long userId, LocalDateTime timestamp, Long id, int limit) {
+        return transactionRepository.findHistoryByUserIdBefore(userId, timestamp, id, Limit.of(limit));
+    }
+
+    @Override
+    public long findLatestId(Long userId) {
+        List<Long> ids = jdbcTemplate.queryForList(LATEST_ID, Long.class, userId);
+        return ids.isEmpty() ? 0 : ids.get(0);
+    }
+
+    @Override
+    public void streamHistory(Long userId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                              Consumer<TransactionDto> consumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        String range = ForwardCursor.rangeFilter("t.timestamp", from, to, args);
+        ForwardCursor.stream(jdbcTemplate, STREAM_HISTORY_SELECT + "WHERE t.user_id = ? " + range +
+                "ORDER BY t.timestamp, t.id", args, fetchSize, rs -> consumer.accept(new TransactionDto(
+                rs.getLong("id"),
+                Transaction.TransactionType.valueOf(rs.getString("type")),
+                Money.of(rs.getBigDecimal("amount")),
+                rs.getString("counterparty_email"),
+                rs.getTimestamp("timestamp").toLocalDateTime())));
+    }
+
+    private static Transaction newTransaction(User user, Transaction.TransactionType type, Money amount, User toUser) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setToUser(toUser);
+        return transaction;
+    }
+}
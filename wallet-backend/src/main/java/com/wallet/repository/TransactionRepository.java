@@ -1,12 +1,38 @@
 package com.wallet.repository;
 
+import com.wallet.dto.TransactionDto;
 import com.wallet.model.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByUserIdOrderByTimestampDesc(Long userId, Pageable pageable);
+    // History reads project straight into TransactionDto with one join to the counterparty,
+    // so no User entities are hydrated and no lazy loads fire per row
+
+    String HISTORY_SELECT = "SELECT new com.wallet.dto.TransactionDto(t.id, t.type, t.amount, c.email, t.timestamp) " +
+            "FROM Transaction t LEFT JOIN t.toUser c ";
+
+    @Query(value = HISTORY_SELECT + "WHERE t.user.id = :userId ORDER BY t.timestamp DESC, t.id DESC",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.user.id = :userId")
+    Page<TransactionDto> findHistoryByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(HISTORY_SELECT + "WHERE t.user.id = :userId ORDER BY t.timestamp DESC, t.id DESC")
+    List<TransactionDto> findLatestHistoryByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(HISTORY_SELECT + "WHERE t.user.id = :userId " +
+            "AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id)) " +
+            "ORDER BY t.timestamp DESC, t.id DESC")
+    List<TransactionDto> findHistoryByUserIdBefore(@Param("userId") Long userId,
+                                                   @Param("timestamp") LocalDateTime timestamp,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
 }
@@ -0,0 +1,74 @@
+package com.wallet.repository;
+
+import com.wallet.dto.TransactionDto;
+import com.wallet.model.Money;
+import com.wallet.model.User;
+import lombok.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage of money movements and the per-user history built from them. Selected with
+ * {@code wallet.transactions.storage}: {@code mirrored} writes SEND/RECEIVE row pairs to
+ * {@code transactions}, {@code double-entry} writes one row per movement to {@code journal_entries}.
+ * Either way the history API returns the same {@link TransactionDto} shape.
+ */
+public interface TransactionStore {
+
+    Recorded recordAdd(User user, Money amount);
+
+    Recorded recordTransfer(User fromUser, User toUser, Money amount);
+
+    /**
+     * Stores many movements as JDBC batches; must run inside a transaction.
+     *
+     * @return where each posting was stored, in order
+     */
+    List<Recorded> recordAll(List<Posting> postings);
+
+    Page<TransactionDto> findHistory(Long userId, Pageable pageable);
+
+    List<TransactionDto> findLatestHistory(Long userId, int limit);
+
+    List<TransactionDto> findHistoryBefore(Long userId, LocalDateTime timestamp, Long id, int limit);
+
+    /**
+     * Id of the user's newest history row, or 0 if there is none. Ids are time-ordered, so this grows
+     * with every balance change and serves as the user's ledger version.
+     */
+    long findLatestId(Long userId);
+
+    /**
+     * Streams the user's whole history, oldest first, to {@code consumer} through a forward-only
+     * cursor instead of materialising it.
+     *
+     * @param from inclusive lower bound, or {@code null}
+     * @param to exclusive upper bound, or {@code null}
+     */
+    void streamHistory(Long userId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                       Consumer<TransactionDto> consumer);
+
+    /**
+     * Where a movement was stored: the id it has in the sender's history ({@code null} for money
+     * added from outside) and in the recipient's, which is the same id when the store keeps one row
+     * per movement.
+     */
+    record Recorded(Long fromRowId, Long toRowId, LocalDateTime timestamp) {
+    }
+
+    /**
+     * A movement of {@code amount} into {@code toUserId}; {@code fromUserId} is null for money added
+     * from outside the wallet.
+     */
+    @Value
+    class Posting {
+        Long fromUserId;
+        Long toUserId;
+        Money amount;
+        LocalDateTime timestamp;
+    }
+}
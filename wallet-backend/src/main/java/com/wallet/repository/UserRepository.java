@@ -2,12 +2,39 @@ package com.wallet.repository;
 
 import com.wallet.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<UserIdentity> findByEmailIn(Collection<String> emails);
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    /**
+     * Swaps in a rehashed password, unless the password was changed since {@code currentHash} was read.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.email = :email AND u.password = :currentHash")
+    int updatePasswordHash(@Param("email") String email, @Param("currentHash") String currentHash,
+                           @Param("newHash") String newHash);
+
+    /**
+     * Id/email pair, for resolving recipients without loading whole users.
+     */
+    interface UserIdentity {
+        Long getId();
+        String getEmail();
+    }
 }
@@ -0,0 +1,79 @@
+package com.wallet.repository;
+
+import com.wallet.model.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set-based balance writes that JPA would otherwise issue one row at a time.
+ * Callers are expected to run inside a transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletJdbcRepository {
+
+    private static final String DEBIT_IF_SUFFICIENT =
+            "UPDATE users SET balance = balance - ? WHERE id = ? AND balance >= ?";
+    private static final String CREDIT = "UPDATE users SET balance = balance + ? WHERE id = ?";
+    private static final String FIND_BALANCE = "SELECT balance FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotAccountRegistry hotAccountRegistry;
+
+    /**
+     * Atomically debits the account if it holds at least {@code amount}.
+     *
+     * A hot account whose row balance falls short has its slots swept into the row first.
+     *
+     * @return false if the balance was insufficient at update time
+     */
+    public boolean debitIfSufficient(Long userId, Money amount) {
+        BigDecimal decimal = amount.toDecimal();
+        if (jdbcTemplate.update(DEBIT_IF_SUFFICIENT, decimal, userId, decimal) == 1) {
+            return true;
+        }
+        if (!hotAccountRegistry.isHot(userId) || hotAccountRegistry.sweep(userId).isZero()) {
+            return false;
+        }
+        return jdbcTemplate.update(DEBIT_IF_SUFFICIENT, decimal, userId, decimal) == 1;
+    }
+
+    /**
+     * @return false if the account does not exist
+     */
+    public boolean credit(Long userId, Money amount) {
+        if (hotAccountRegistry.isHot(userId) && hotAccountRegistry.creditSlot(userId, amount)) {
+            return true;
+        }
+        return jdbcTemplate.update(CREDIT, amount.toDecimal(), userId) == 1;
+    }
+
+    /**
+     * Credits every account, locking rows in ascending id order so concurrent batches
+     * cannot deadlock on each other's credits.
+     */
+    public void creditAll(Map<Long, Money> credits) {
+        List<Object[]> rows = new ArrayList<>(credits.size());
+        new TreeMap<>(credits).forEach((userId, amount) -> {
+            if (!hotAccountRegistry.isHot(userId) || !hotAccountRegistry.creditSlot(userId, amount)) {
+                rows.add(new Object[]{amount.toDecimal(), userId});
+            }
+        });
+        jdbcTemplate.batchUpdate(CREDIT, rows);
+    }
+
+    /**
+     * The account's spendable balance. Slots are only summed for hot accounts.
+     */
+    public Money findBalance(Long userId) {
+        Money balance = Money.of(jdbcTemplate.queryForObject(FIND_BALANCE, BigDecimal.class, userId));
+        return hotAccountRegistry.isHot(userId) ? balance.plus(hotAccountRegistry.slotBalance(userId)) : balance;
+    }
+}
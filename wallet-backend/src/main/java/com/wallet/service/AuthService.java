@@ -1,6 +1,8 @@
 package com.wallet.service;
 
+import com.wallet.config.JwtPrincipal;
 import com.wallet.config.JwtTokenProvider;
+import com.wallet.config.ReadYourWrites;
 import com.wallet.dto.AuthRequest;
 import com.wallet.dto.AuthResponse;
 import com.wallet.dto.RegisterRequest;
@@ -8,6 +10,7 @@ import com.wallet.dto.UserDto;
 import com.wallet.exception.ApiException;
 import com.wallet.model.User;
 import com.wallet.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,6 +29,11 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final OperationMetrics operationMetrics;
+    private final MeterRegistry meterRegistry;
+    private final RecipientCache recipientCache;
+    private final ReadYourWrites readYourWrites;
 
     @Transactional
     public UserDto register(RegisterRequest request) {
@@ -42,19 +50,29 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(request.getPassword()));
 
         User savedUser = userRepository.save(user);
+        recipientCache.invalidate(savedUser.getEmail());
+        readYourWrites.markWrite(savedUser.getId());
         log.info("User registered successfully with id: {}", savedUser.getId());
 
         return mapToUserDto(savedUser);
     }
 
+    /**
+     * Timed as {@code wallet.auth.login}; the BCrypt and user lookup shares of it are recorded
+     * separately as {@code wallet.auth.password.hashing} and {@code wallet.auth.user.lookup}.
+     */
     public AuthResponse login(AuthRequest request) {
+        return operationMetrics.record("wallet.auth.login", () -> doLogin(request));
+    }
+
+    private AuthResponse doLogin(AuthRequest request) {
         log.info("Login attempt for email: {}", request.getEmail());
 
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
 
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = meterRegistry.timer("wallet.auth.user.lookup").record(() -> userRepository.findByEmail(request.getEmail()))
                 .orElseThrow(() -> new ApiException("User not found", 404));
 
         String token = jwtTokenProvider.generateToken(user.getEmail(), user.getId());
@@ -63,6 +81,11 @@ public class AuthService {
         return new AuthResponse("Bearer " + token);
     }
 
+    public void logout(JwtPrincipal principal) {
+        tokenRevocationService.revokeToken(principal);
+        log.info("User {} logged out", principal.getUserId());
+    }
+
     private UserDto mapToUserDto(User user) {
         return new UserDto(
                 user.getId(),
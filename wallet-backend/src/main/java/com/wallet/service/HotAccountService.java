@@ -0,0 +1,73 @@
+package com.wallet.service;
+
+import com.wallet.exception.ApiException;
+import com.wallet.model.Money;
+import com.wallet.repository.HotAccountRegistry;
+import com.wallet.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Flags the accounts listed in {@code wallet.hot-accounts.emails} at startup and keeps every
+ * hot account's slots from accumulating: each consolidation pass sweeps them back into the
+ * {@code users} row in a short transaction of its own.
+ */
+@Service
+@ConditionalOnProperty(name = "wallet.hot-accounts.enabled", havingValue = "true")
+@Slf4j
+public class HotAccountService {
+
+    private final HotAccountRegistry hotAccountRegistry;
+    private final UserRepository userRepository;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+    private final List<String> configuredEmails;
+
+    public HotAccountService(
+            HotAccountRegistry hotAccountRegistry,
+            UserRepository userRepository,
+            RetryingTransactionExecutor retryingTransactionExecutor,
+            @Value("${wallet.hot-accounts.emails:}") List<String> configuredEmails) {
+        this.hotAccountRegistry = hotAccountRegistry;
+        this.userRepository = userRepository;
+        this.retryingTransactionExecutor = retryingTransactionExecutor;
+        this.configuredEmails = configuredEmails;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void flagConfiguredAccounts() {
+        hotAccountRegistry.refresh();
+        for (String email : configuredEmails) {
+            userRepository.findByEmail(email.trim()).ifPresentOrElse(
+                    user -> markHot(user.getId()),
+                    () -> log.warn("Configured hot account {} does not exist", email));
+        }
+    }
+
+    public void markHot(Long userId) {
+        if (!retryingTransactionExecutor.execute("mark-hot", () -> hotAccountRegistry.markHot(userId))) {
+            throw new ApiException("User not found", 404);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.hot-accounts.refresh-interval-ms:5000}")
+    public void refresh() {
+        hotAccountRegistry.refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.hot-accounts.consolidation-interval-ms:1000}")
+    public void consolidate() {
+        for (Long userId : hotAccountRegistry.getHotAccountIds()) {
+            Money moved = retryingTransactionExecutor.execute("consolidate", () -> hotAccountRegistry.sweep(userId));
+            if (!moved.isZero()) {
+                log.debug("Consolidated {} from balance slots of account {}", moved, userId);
+            }
+        }
+    }
+}
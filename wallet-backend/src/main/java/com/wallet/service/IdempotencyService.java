@@ -0,0 +1,209 @@
+package com.wallet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.dto.WalletResponse;
+import com.wallet.exception.ApiException;
+import com.wallet.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes {@code Idempotency-Key} requests to money-moving endpoints apply at most once. Completed
+ * responses are served from a TTL-bounded in-memory store, and after a restart or from another
+ * instance they come from the {@code idempotency_keys} table. The operation itself writes that row
+ * through {@link #record} in its own transaction, so its primary key lets only one of two racing
+ * instances commit. Within an instance, a duplicate that arrives while the first request is still
+ * running waits for its result instead of running in parallel.
+ *
+ * <p>Not available with {@code wallet.ledger.engine=sharded}: the ledger makes a movement durable in
+ * its journal, not in a database transaction the key row could join, so a crash between the two
+ * would let a retry apply the money again. Keys are rejected there instead.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final long waitMs;
+    private final boolean supported;
+
+    private final Cache<RequestKey, Completed> completed;
+    private final ConcurrentHashMap<RequestKey, CompletableFuture<WalletResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Pending> pending = new ThreadLocal<>();
+
+    public IdempotencyService(
+            IdempotencyRepository idempotencyRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.idempotency.ttl-ms:86400000}") long ttlMs,
+            @Value("${wallet.idempotency.max-entries:100000}") long maxEntries,
+            @Value("${wallet.idempotency.wait-ms:10000}") long waitMs,
+            @Value("${wallet.ledger.engine:jpa}") String ledgerEngine) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.waitMs = waitMs;
+        this.supported = !"sharded".equals(ledgerEngine);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code operation} unless a request with the same key already ran or is running, in which
+     * case the original response is returned. Failed operations are not remembered, since they moved
+     * no money; a duplicate waiting on one runs again itself.
+     *
+     * @param operation names the endpoint; a key reused for another endpoint or body is rejected with 422
+     * @throws ApiException with status 400 when the sharded ledger engine is in use
+     */
+    public WalletResponse execute(Long userId, String key, String operation, Object request,
+                                  Supplier<WalletResponse> action) {
+        if (!supported) {
+            throw new ApiException("Idempotency-Key is not supported by the sharded ledger engine");
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        RequestKey requestKey = new RequestKey(userId, key);
+        String requestHash = hash(operation, request);
+
+        while (true) {
+            Completed done = completed.getIfPresent(requestKey);
+            if (done != null) {
+                return replay(done, requestHash, "memory");
+            }
+
+            CompletableFuture<WalletResponse> running = new CompletableFuture<>();
+            CompletableFuture<WalletResponse> first = inFlight.putIfAbsent(requestKey, running);
+            if (first != null) {
+                awaitFirst(first);
+                continue;
+            }
+
+            try {
+                WalletResponse response = runOnce(requestKey, requestHash, action);
+                running.complete(response);
+                return response;
+            } catch (RuntimeException e) {
+                running.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(requestKey, running);
+            }
+        }
+    }
+
+    /**
+     * Stores the response of the idempotent request being executed on this thread, if any. Called by
+     * the operation inside its transaction, so the record commits or rolls back with the money.
+     */
+    public WalletResponse record(WalletResponse response) {
+        Pending current = pending.get();
+        if (current != null) {
+            idempotencyRepository.insert(current.key().userId(), current.key().key(), current.requestHash(), response);
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyRepository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private WalletResponse runOnce(RequestKey requestKey, String requestHash, Supplier<WalletResponse> action) {
+        var stored = idempotencyRepository.find(requestKey.userId(), requestKey.key());
+        if (stored.isPresent()) {
+            Completed done = new Completed(stored.get().requestHash(), stored.get().response());
+            completed.put(requestKey, done);
+            return replay(done, requestHash, "database");
+        }
+
+        pending.set(new Pending(requestKey, requestHash));
+        WalletResponse response;
+        try {
+            response = action.get();
+        } catch (DuplicateKeyException e) {
+            // Another instance committed the same key first; this attempt rolled back
+            return runOnce(requestKey, requestHash, action);
+        } finally {
+            pending.remove();
+        }
+        completed.put(requestKey, new Completed(requestHash, response));
+        meterRegistry.counter("wallet.idempotency.requests", "result", "executed").increment();
+        return response;
+    }
+
+    private WalletResponse replay(Completed done, String requestHash, String source) {
+        if (!done.requestHash().equals(requestHash)) {
+            meterRegistry.counter("wallet.idempotency.requests", "result", "mismatch").increment();
+            throw new ApiException("Idempotency-Key was already used for a different request", 422);
+        }
+        meterRegistry.counter("wallet.idempotency.requests", "result", "replayed_" + source).increment();
+        return done.response();
+    }
+
+    private void awaitFirst(CompletableFuture<WalletResponse> first) {
+        meterRegistry.counter("wallet.idempotency.requests", "result", "waited").increment();
+        try {
+            first.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ApiException("A request with this Idempotency-Key is still in progress", 409);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("A request with this Idempotency-Key is still in progress", 409);
+        } catch (ExecutionException e) {
+            // The first attempt failed without moving money; the caller loops and may run it itself
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private record RequestKey(Long userId, String key) {
+    }
+
+    private record Completed(String requestHash, WalletResponse response) {
+    }
+
+    private record Pending(RequestKey key, String requestHash) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.wallet.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.cache.CacheInvalidationBus;
+import com.wallet.cache.CacheLoads;
+import com.wallet.repository.TransactionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Per-user ledger versions behind the {@code ETag}s of balance and history reads. A version is the
+ * id of the user's newest history row, so it grows with every balance change and needs no extra
+ * write. Versions are held in a size-bounded cache and loaded with one indexed query on a miss.
+ * {@link WalletService} drops a user's entry once a balance change commits; with the sharded ledger
+ * the projector does, once the change reaches the database. Other instances drop their entry
+ * through the {@link CacheInvalidationBus}, which also makes their {@link ProfileCache} reload.
+ * Entries expire after {@code wallet.ledger-versions.ttl-ms} in case an invalidation is lost.
+ */
+@Component
+public class LedgerVersions {
+
+    static final String NAME = "ledgerVersions";
+
+    private final TransactionStore transactionStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CacheInvalidationBus invalidationBus;
+    private final AsyncCache<Long, Long> versions;
+
+    public LedgerVersions(
+            TransactionStore transactionStore,
+            PlatformTransactionManager transactionManager,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.ledger-versions.max-size:100000}") long maxSize,
+            @Value("${wallet.ledger-versions.ttl-ms:5000}") long ttlMs) {
+        this.transactionStore = transactionStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.invalidationBus = invalidationBus;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, NAME);
+        invalidationBus.register(NAME, userIds -> versions.synchronous().invalidateAll(userIds.stream().map(Long::valueOf).toList()));
+    }
+
+    /**
+     * ETag of the user's current ledger state, answered from memory when possible and never
+     * through JPA.
+     */
+    public String currentETag(Long userId) {
+        return eTag(userId, currentVersion(userId));
+    }
+
+    public long currentVersion(Long userId) {
+        return CacheLoads.get(versions, userId, transactionStore::findLatestId);
+    }
+
+    /**
+     * Runs {@code reader} in a read-only transaction and tags its result with the version read just
+     * before it, on the same connection. The body is therefore never older than its ETag, even when
+     * it comes from a lagging replica.
+     */
+    public <T> Versioned<T> read(Long userId, Supplier<T> reader) {
+        return readOnlyTransaction.execute(status ->
+                new Versioned<>(userId, transactionStore.findLatestId(userId), reader.get()));
+    }
+
+    /**
+     * Marks the users' versions as changed. Inside a transaction this takes effect on commit, so a
+     * concurrent read cannot cache the version from before the change.
+     */
+    public void changed(Collection<Long> userIds) {
+        List<Long> changed = List.copyOf(userIds);
+        AfterCommit.run(() -> {
+            versions.synchronous().invalidateAll(changed);
+            invalidationBus.publish(NAME, changed);
+        });
+    }
+
+    /**
+     * Records that the user's ledger reached {@code version}, on commit when inside a transaction.
+     * Unlike {@link #changed}, the next read here needs no query; other instances still drop theirs.
+     */
+    public void advanced(Long userId, long version) {
+        AfterCommit.run(() -> {
+            // A load still in flight may predate this version, so it is replaced rather than waited for
+            versions.asMap().merge(userId, CompletableFuture.completedFuture(version), (cached, advanced) -> {
+                Long known = CacheLoads.completedValue(cached);
+                return known != null && known >= version ? cached : advanced;
+            });
+            invalidationBus.publish(NAME, List.of(userId));
+        });
+    }
+
+    private static String eTag(Long userId, long version) {
+        return "\"" + userId + "-" + version + "\"";
+    }
+
+    /**
+     * A value read at {@code version} of the user's ledger.
+     */
+    public record Versioned<T>(Long userId, long version, T body) {
+
+        public String eTag() {
+            return LedgerVersions.eTag(userId, version);
+        }
+
+        public <R> Versioned<R> withBody(R newBody) {
+            return new Versioned<>(userId, version, newBody);
+        }
+    }
+}
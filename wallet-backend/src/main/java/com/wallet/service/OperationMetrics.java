@@ -0,0 +1,57 @@
+package com.wallet.service;
+
+import com.wallet.exception.ApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Times service operations under an {@code outcome} tag, so one timer per operation yields both
+ * latency and success/rejection counts: {@code success}, the lower-cased
+ * {@link ApiException.Reason} when there is one ({@code insufficient_funds},
+ * {@code recipient_not_found}), {@code not_found}, {@code conflict}, {@code bad_credentials},
+ * {@code shed} (turned away under load), {@code rejected} or {@code error}.
+ */
+@Component
+@RequiredArgsConstructor
+public class OperationMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String name, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return operation.get();
+        } catch (ApiException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } catch (AuthenticationException e) {
+            outcome = "bad_credentials";
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(name, "outcome", outcome));
+        }
+    }
+
+    static String outcomeOf(ApiException e) {
+        if (e.getReason() != null) {
+            return e.getReason().name().toLowerCase(Locale.ROOT);
+        }
+        if (e.getStatusCode() == 404) {
+            return "not_found";
+        }
+        if (e.getStatusCode() == 429 || e.getStatusCode() == 503) {
+            return "shed";
+        }
+        return e.getStatusCode() == 409 ? "conflict" : "rejected";
+    }
+}
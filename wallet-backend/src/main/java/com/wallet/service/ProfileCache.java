@@ -0,0 +1,126 @@
+package com.wallet.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.cache.CacheLoads;
+import com.wallet.dto.UserDto;
+import com.wallet.model.Money;
+import com.wallet.repository.HotAccountRegistry;
+import com.wallet.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Profiles and balances behind {@code /api/users/me}, held in a size-bounded Caffeine cache by user
+ * id and found by email through {@link RecipientCache}. Concurrent misses for a user share one
+ * load through {@link CacheLoads}, which reads the profile together with its ledger version. {@link WalletService} writes the
+ * new balance through once a change commits, and an update older than the cached version is
+ * ignored, so callbacks that run out of order cannot roll a balance back. Balances that are not
+ * known exactly at commit, such as those of hot accounts, are dropped instead. Changes made on other
+ * instances are noticed through the version check in {@link #find}. Exposed as cache
+ * {@code profiles} with hit, miss and eviction counts.
+ */
+@Component
+public class ProfileCache {
+
+    private final UserRepository userRepository;
+    private final LedgerVersions ledgerVersions;
+    private final RecipientCache recipientCache;
+    private final HotAccountRegistry hotAccountRegistry;
+    private final AsyncCache<Long, LedgerVersions.Versioned<UserDto>> profiles;
+
+    public ProfileCache(
+            UserRepository userRepository,
+            LedgerVersions ledgerVersions,
+            RecipientCache recipientCache,
+            HotAccountRegistry hotAccountRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.profile-cache.max-size:100000}") long maxSize,
+            @Value("${wallet.profile-cache.ttl-ms:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ledgerVersions = ledgerVersions;
+        this.recipientCache = recipientCache;
+        this.hotAccountRegistry = hotAccountRegistry;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "profiles");
+    }
+
+    /**
+     * The user's profile, reloaded when {@link LedgerVersions} knows of a newer version: a change
+     * made on another instance, or one that could not be written through.
+     */
+    public Optional<LedgerVersions.Versioned<UserDto>> find(Long userId) {
+        LedgerVersions.Versioned<UserDto> profile = CacheLoads.get(profiles, userId, this::load);
+        if (profile != null && profile.version() < ledgerVersions.currentVersion(userId)) {
+            profiles.synchronous().invalidate(userId);
+            profile = CacheLoads.get(profiles, userId, this::load);
+        }
+        return Optional.ofNullable(profile);
+    }
+
+    public Optional<LedgerVersions.Versioned<UserDto>> findByEmail(String email) {
+        return recipientCache.findId(email).flatMap(this::find);
+    }
+
+    /**
+     * Whether the user has an entry, without counting as a hit or miss.
+     */
+    public boolean isCached(Long userId) {
+        return profiles.asMap().containsKey(userId);
+    }
+
+    /**
+     * Writes the user's balance as of the history row {@code version} through to the cache once the
+     * current transaction commits. A {@code null} balance, or the balance of a hot account whose
+     * concurrent slot credits the caller could not see, drops the entry instead.
+     */
+    public void balanceChanged(Long userId, long version, Money balance) {
+        if (balance == null || hotAccountRegistry.isHot(userId)) {
+            invalidate(List.of(userId));
+            return;
+        }
+        // A load still in flight may have read the old balance, so its entry is dropped
+        AfterCommit.run(() -> profiles.asMap().computeIfPresent(userId, (id, loading) -> {
+            LedgerVersions.Versioned<UserDto> cached = CacheLoads.completedValue(loading);
+            if (cached == null) {
+                return null;
+            }
+            return cached.version() < version
+                    ? CompletableFuture.completedFuture(
+                            new LedgerVersions.Versioned<>(id, version, withBalance(cached.body(), balance)))
+                    : loading;
+        }));
+    }
+
+    /**
+     * Drops the users' entries once the current transaction commits, or at once outside one.
+     */
+    public void invalidate(Collection<Long> userIds) {
+        List<Long> changed = List.copyOf(userIds);
+        AfterCommit.run(() -> profiles.synchronous().invalidateAll(changed));
+    }
+
+    private LedgerVersions.Versioned<UserDto> load(Long userId) {
+        LedgerVersions.Versioned<Optional<UserDto>> loaded = ledgerVersions.read(userId, () -> userRepository.findById(userId)
+                .map(user -> new UserDto(user.getId(), user.getName(), user.getEmail(),
+                        hotAccountRegistry.spendableBalance(user))));
+        // Unknown users are not cached
+        return loaded.body().map(loaded::withBody).orElse(null);
+    }
+
+    private static UserDto withBalance(UserDto profile, Money balance) {
+        return new UserDto(profile.getId(), profile.getName(), profile.getEmail(), balance);
+    }
+}
@@ -0,0 +1,74 @@
+package com.wallet.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wallet.cache.CacheInvalidationBus;
+import com.wallet.cache.CacheLoads;
+import com.wallet.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Email to user id mappings for transfer recipients, held in a size-bounded Caffeine (W-TinyLFU)
+ * cache so the few very popular recipients are resolved without a query. Only existing users are
+ * cached. Entries are dropped when the email is registered or changes owner, on every instance
+ * through the {@link CacheInvalidationBus}, and expire after {@code wallet.recipient-cache.ttl-ms}
+ * in case an invalidation is lost. Exposed as cache {@code recipientIds} with hit, miss and
+ * eviction counts.
+ */
+@Component
+public class RecipientCache {
+
+    static final String NAME = "recipientIds";
+
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final AsyncCache<String, Long> idsByEmail;
+
+    public RecipientCache(
+            UserRepository userRepository,
+            CacheInvalidationBus invalidationBus,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.recipient-cache.max-size:100000}") long maxSize,
+            @Value("${wallet.recipient-cache.ttl-ms:600000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, NAME);
+        invalidationBus.register(NAME, idsByEmail.synchronous()::invalidateAll);
+    }
+
+    public Optional<Long> findId(String email) {
+        return Optional.ofNullable(CacheLoads.get(idsByEmail, email, key -> userRepository.findIdByEmail(key).orElse(null)));
+    }
+
+    /**
+     * Resolves many emails, loading all misses with one query. Unknown emails are left out.
+     */
+    public Map<String, Long> findIds(Collection<String> emails) {
+        return CacheLoads.getAll(idsByEmail, emails, missing -> {
+            Map<String, Long> loaded = new HashMap<>();
+            userRepository.findByEmailIn(List.copyOf(missing))
+                    .forEach(identity -> loaded.put(identity.getEmail(), identity.getId()));
+            return loaded;
+        });
+    }
+
+    public void invalidate(String email) {
+        idsByEmail.synchronous().invalidate(email);
+        invalidationBus.publish(NAME, List.of(email));
+    }
+}
@@ -0,0 +1,84 @@
+package com.wallet.service;
+
+import com.wallet.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when it loses a race: an optimistic
+ * check failed, or the database aborted it on a deadlock or lock timeout. Attempts are bounded and
+ * spaced with full-jitter exponential backoff so colliding callers do not retry in lockstep.
+ * Conflicts, retries and exhausted attempts are counted per operation.
+ */
+@Component
+@Slf4j
+public class RetryingTransactionExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public RetryingTransactionExecutor(
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.retry.max-attempts:5}") int maxAttempts,
+            @Value("${wallet.retry.initial-backoff-ms:5}") long initialBackoffMs,
+            @Value("${wallet.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * @param operation metric tag naming the unit of work, e.g. {@code transfer}
+     * @throws ApiException with status 409 once every attempt has conflicted
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | PessimisticLockingFailureException e) {
+                counter("wallet.concurrency.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("wallet.concurrency.exhausted", operation).increment();
+                    log.warn("Giving up on {} after {} conflicting attempts: {}", operation, attempt, e.getMessage());
+                    throw new ApiException("Too many concurrent updates, please retry", 409);
+                }
+                counter("wallet.concurrency.retries", operation).increment();
+                log.debug("Retrying {} after conflict on attempt {}: {}", operation, attempt, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (delay == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while retrying", 503);
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+}
@@ -0,0 +1,78 @@
+package com.wallet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.wallet.config.JwtPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * In-memory revocation list consulted on every authenticated request instead of the database.
+ * Individual tokens (logout) are tracked by their {@code jti} until they would have expired anyway;
+ * whole users (password change) get a "not-before" millisecond, and any token issued earlier is rejected.
+ * Both structures only hold entries for at most one token lifetime, so they stay small.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final Cache<String, Instant> revokedTokenIds;
+    private final Cache<Long, Long> notBeforeByUserId;
+
+    public TokenRevocationService(@Value("${jwt.expiration}") long expiration) {
+        this.revokedTokenIds = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String tokenId, Instant expiresAt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.notBeforeByUserId = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expiration))
+                .build();
+    }
+
+    public void revokeToken(JwtPrincipal principal) {
+        if (principal.getTokenId() == null) {
+            // Tokens issued before jti was introduced can only be revoked per user
+            revokeAllForUser(principal.getUserId());
+            return;
+        }
+        revokedTokenIds.put(principal.getTokenId(), principal.getExpiresAt());
+        log.info("Revoked token {} for user {}", principal.getTokenId(), principal.getUserId());
+    }
+
+    /**
+     * Rejects every token for the user issued before the current millisecond. A token issued
+     * within that same millisecond stays valid, so callers should also {@link #revokeToken revoke}
+     * the token in hand.
+     */
+    public void revokeAllForUser(Long userId) {
+        notBeforeByUserId.put(userId, Instant.now().toEpochMilli());
+        log.info("Revoked all tokens issued before now for user {}", userId);
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        if (principal.getTokenId() != null && revokedTokenIds.getIfPresent(principal.getTokenId()) != null) {
+            return true;
+        }
+        Long notBefore = notBeforeByUserId.getIfPresent(principal.getUserId());
+        return notBefore != null && principal.getIssuedAt().toEpochMilli() < notBefore;
+    }
+}
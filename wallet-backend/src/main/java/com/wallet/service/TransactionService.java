@@ -1,32 +1,218 @@
 package com.wallet.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.wallet.dto.TransactionDto;
+import com.wallet.dto.TransactionHistoryPage;
+import com.wallet.exception.ApiException;
 import com.wallet.model.Transaction;
-import com.wallet.repository.TransactionRepository;
+import com.wallet.repository.TransactionStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionService {
 
-    private final TransactionRepository transactionRepository;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    public enum ExportFormat {
+        CSV("text/csv"), NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        ExportFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static ExportFormat parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException("Unsupported export format: " + format);
+            }
+        }
+    }
+
+    private final TransactionStore transactionStore;
+    private final OperationMetrics operationMetrics;
+    private final ObjectMapper objectMapper;
 
+    @Value("${wallet.transactions.export-fetch-size:500}")
+    private int exportFetchSize;
+
+    @Transactional(readOnly = true)
     public Page<TransactionDto> getUserTransactions(Long userId, int page, int size) {
         log.debug("Fetching transactions for user: {}, page: {}, size: {}", userId, page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactions = transactionRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
-        
-        return transactions.map(this::mapToTransactionDto);
+        return operationMetrics.record("wallet.history.page", () -> transactionStore.findHistory(userId, pageable));
+    }
+
+    /**
+     * Keyset-paginated history, newest first. Each page seeks past the (timestamp, id) of the
+     * previous page's last row, so deep pages cost the same as the first and no count is run.
+     *
+     * @param cursor opaque {@code nextCursor} from the previous page, or {@code null} for the first page
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistoryPage getTransactionHistory(Long userId, String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new ApiException("Size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        log.debug("Fetching transaction history for user: {}, cursor: {}, size: {}", userId, cursor, size);
+
+        // One extra row tells us whether another page exists
+        int limit = size + 1;
+        List<TransactionDto> transactions;
+        if (cursor == null || cursor.isEmpty()) {
+            transactions = operationMetrics.record("wallet.history.cursor",
+                    () -> transactionStore.findLatestHistory(userId, limit));
+        } else {
+            String[] position = decodeCursor(cursor);
+            transactions = operationMetrics.record("wallet.history.cursor", () -> transactionStore.findHistoryBefore(
+                    userId, LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit));
+        }
+
+        String nextCursor = null;
+        if (transactions.size() > size) {
+            transactions = transactions.subList(0, size);
+            TransactionDto last = transactions.get(size - 1);
+            nextCursor = encodeCursor(last.getTimestamp(), last.getId());
+        }
+
+        return new TransactionHistoryPage(transactions, nextCursor);
+    }
+
+    /**
+     * Writes the user's history, oldest first, straight from a database cursor to {@code out}. Rows
+     * are never collected, so memory stays flat however long the history is.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportHistory(Long userId, ExportFormat format, LocalDateTime from, LocalDateTime to,
+                              OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        JsonGenerator json = null;
+        Consumer<TransactionDto> rowWriter;
+        if (format == ExportFormat.CSV) {
+            rowWriter = csvRowWriter(writer);
+        } else {
+            json = objectMapper.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            rowWriter = ndjsonRowWriter(json);
+        }
+        long[] rows = {0};
+
+        try {
+            operationMetrics.record("wallet.history.export", () -> {
+                transactionStore.streamHistory(userId, from, to, exportFetchSize, dto -> {
+                    rowWriter.accept(dto);
+                    rows[0]++;
+                });
+                return rows[0];
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download; the cursor is closed with the query
+            throw e.getCause();
+        }
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+        log.debug("Exported {} transactions for user {} as {}", rows[0], userId, format);
+        return rows[0];
+    }
+
+    private static Consumer<TransactionDto> csvRowWriter(Writer writer) {
+        write(writer, "id,type,amount,to_email,from_email,timestamp\n");
+        return dto -> write(writer, dto.getId() + "," + dto.getType() + "," + dto.getAmount() + "," +
+                csvField(dto.getToEmail()) + "," + csvField(dto.getFromEmail()) + "," + dto.getTimestamp() + "\n");
+    }
+
+    private Consumer<TransactionDto> ndjsonRowWriter(JsonGenerator json) {
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return dto -> {
+            try {
+                rowWriter.writeValue(json, dto);
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void write(Writer writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String position = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new ApiException("Invalid cursor");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ApiException("Invalid cursor");
+        }
     }
 
-    private TransactionDto mapToTransactionDto(Transaction transaction) {
+    /**
+     * Maps an entity that is already in memory, such as a just-saved row. Reads of stored history
+     * should use {@link TransactionStore}'s DTO queries instead, which avoid lazy-loading {@code toUser}.
+     */
+    public TransactionDto mapToTransactionDto(Transaction transaction) {
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setType(transaction.getType());
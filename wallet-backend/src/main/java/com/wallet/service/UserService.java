@@ -1,12 +1,20 @@
 package com.wallet.service;
 
+import com.wallet.config.JwtPrincipal;
+import com.wallet.dto.ChangePasswordRequest;
 import com.wallet.dto.UserDto;
 import com.wallet.exception.ApiException;
+import com.wallet.ledger.ShardedLedger;
+import com.wallet.model.Money;
 import com.wallet.model.User;
 import com.wallet.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
 
 @Service
 @RequiredArgsConstructor
@@ -14,19 +22,34 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final ObjectProvider<ShardedLedger> shardedLedger;
+    private final ProfileCache profileCache;
 
     public UserDto getCurrentUser(String email) {
         log.debug("Fetching user profile for email: {}", email);
-        
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ApiException("User not found", 404));
+        return withLedgerBalance(profileCache.findByEmail(email)
+                .orElseThrow(() -> new ApiException("User not found", 404))).body();
+    }
+
+    /**
+     * The user's profile tagged with the ledger version it reflects, served from {@link ProfileCache}.
+     */
+    public LedgerVersions.Versioned<UserDto> getProfile(Long userId) {
+        return withLedgerBalance(profileCache.find(userId)
+                .orElseThrow(() -> new ApiException("User not found", 404)));
+    }
 
-        return new UserDto(
-                user.getId(),
-                user.getName(),
-                user.getEmail(),
-                user.getBalance()
-        );
+    private LedgerVersions.Versioned<UserDto> withLedgerBalance(LedgerVersions.Versioned<UserDto> profile) {
+        // With the in-memory ledger the users table lags by the projection interval
+        ShardedLedger ledger = shardedLedger.getIfAvailable();
+        if (ledger == null) {
+            return profile;
+        }
+        UserDto user = profile.body();
+        return profile.withBody(new UserDto(user.getId(), user.getName(), user.getEmail(),
+                Money.ofMinor(ledger.balance(user.getId()))));
     }
 
     public User getUserById(Long id) {
@@ -38,4 +61,21 @@ public class UserService {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ApiException("User not found with email: " + email, 404));
     }
+
+    @Transactional
+    public void changePassword(JwtPrincipal principal, ChangePasswordRequest request) {
+        User user = getUserById(principal.getUserId());
+
+        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+            throw new ApiException("Current password is incorrect", 401);
+        }
+
+        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        userRepository.save(user);
+
+        // Every outstanding token for this user is now invalid, including the one in hand
+        tokenRevocationService.revokeAllForUser(user.getId());
+        tokenRevocationService.revokeToken(principal);
+        log.info("Password changed for user {}", user.getId());
+    }
 }
@@ -0,0 +1,212 @@
+package com.wallet.service;
+
+import com.wallet.dto.WalletEvent;
+import com.wallet.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event streams of users' committed balance changes. An idle stream is just an async
+ * servlet response and holds no thread. Events are queued per connection in a buffer of
+ * {@code wallet.events.buffer-size} and written by a virtual thread that exists only while the
+ * buffer is non-empty. A client that falls a full buffer behind is disconnected rather than
+ * slowing anyone else down; it can reconnect and catch up from the history endpoints.
+ */
+@Component
+@Slf4j
+public class WalletEvents implements DisposableBean {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final ConcurrentHashMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxConnectionsPerUser;
+    private final Counter sent;
+    private final Counter droppedSlow;
+    private final Counter disconnected;
+
+    public WalletEvents(
+            MeterRegistry meterRegistry,
+            @Value("${wallet.events.buffer-size:64}") int bufferSize,
+            @Value("${wallet.events.timeout-ms:1800000}") long timeoutMs,
+            @Value("${wallet.events.max-connections-per-user:5}") int maxConnectionsPerUser) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        meterRegistry.gauge("wallet.events.connections", connections);
+        this.sent = meterRegistry.counter("wallet.events.sent");
+        this.droppedSlow = meterRegistry.counter("wallet.events.dropped", "reason", "slow_client");
+        this.disconnected = meterRegistry.counter("wallet.events.dropped", "reason", "disconnected");
+    }
+
+    /**
+     * Opens a stream for the user; it ends after {@code wallet.events.timeout-ms}, when clients are
+     * expected to reconnect.
+     *
+     * @throws ApiException with status 429 when the user already has too many streams open
+     */
+    public SseEmitter subscribe(Long userId) {
+        return register(userId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter register(Long userId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(userId, emitter);
+        AtomicBoolean admitted = new AtomicBoolean();
+        subscriptions.compute(userId, (id, current) -> {
+            Set<Subscription> open = current != null ? current : ConcurrentHashMap.newKeySet();
+            if (open.size() < maxConnectionsPerUser) {
+                open.add(subscription);
+                admitted.set(true);
+            }
+            return open;
+        });
+        if (!admitted.get()) {
+            throw new ApiException("Too many event streams open", 429);
+        }
+        connections.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onError(error -> remove(subscription));
+        emitter.onTimeout(subscription::close);
+        return emitter;
+    }
+
+    /**
+     * Lets writers skip building events nobody on this node is listening for.
+     */
+    public boolean hasSubscribers(Long userId) {
+        return subscriptions.containsKey(userId);
+    }
+
+    /**
+     * Delivers the event to the user's streams once the current transaction commits, and drops it
+     * if it rolls back. Outside a transaction it is delivered at once.
+     */
+    public void publish(Long userId, WalletEvent event) {
+        AfterCommit.run(() -> deliver(userId, event));
+    }
+
+    /**
+     * Writes a comment to every stream, so proxies keep idle connections open and dead ones are
+     * noticed and released.
+     */
+    @Scheduled(fixedDelayString = "${wallet.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscriptions.values().forEach(open -> open.forEach(subscription -> subscription.offer(HEARTBEAT)));
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.values().forEach(open -> open.forEach(subscription -> subscription.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private void deliver(Long userId, WalletEvent event) {
+        Set<Subscription> open = subscriptions.get(userId);
+        if (open != null) {
+            open.forEach(subscription -> subscription.offer(event));
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, open) -> {
+            if (open.remove(subscription)) {
+                connections.decrementAndGet();
+            }
+            return open.isEmpty() ? null : open;
+        });
+    }
+
+    private final class Subscription {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Object event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                droppedSlow.increment();
+                log.info("Dropping event stream of user {}: client is {} events behind", userId, bufferSize);
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Object event;
+                while ((event = buffer.poll()) != null) {
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        emitter.send(toSse(event));
+                    } catch (IOException | IllegalStateException e) {
+                        disconnected.increment();
+                        close();
+                        return;
+                    }
+                    if (event != HEARTBEAT) {
+                        sent.increment();
+                    }
+                }
+                draining.set(false);
+                // An event offered after the last poll but before the flag cleared would be stranded
+            } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            remove(this);
+            // Completing waits for a write in progress, which for a slow client can take a while
+            senders.execute(emitter::complete);
+        }
+
+        private static SseEmitter.SseEventBuilder toSse(Object event) {
+            if (event == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            WalletEvent walletEvent = (WalletEvent) event;
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name("wallet");
+            if (walletEvent.getTransaction() != null) {
+                builder.id(String.valueOf(walletEvent.getTransaction().getId()));
+            }
+            return builder.data(walletEvent, MediaType.APPLICATION_JSON);
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.wallet.service;
 
+import com.wallet.config.ReadYourWrites;
 import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.BatchTransferResponse;
+import com.wallet.dto.BatchTransferResult;
+import com.wallet.dto.TransactionDto;
 import com.wallet.dto.TransferRequest;
+import com.wallet.dto.WalletEvent;
 import com.wallet.dto.WalletResponse;
 import com.wallet.exception.ApiException;
-import com.wallet.model.Transaction;
+import com.wallet.ledger.LedgerResult;
+import com.wallet.ledger.ShardedLedger;
+import com.wallet.model.Money;
+import com.wallet.model.Transaction.TransactionType;
 import com.wallet.model.User;
-import com.wallet.repository.TransactionRepository;
+import com.wallet.outbox.TransactionOutbox;
+import com.wallet.repository.HotAccountRegistry;
+import com.wallet.repository.TransactionStore;
 import com.wallet.repository.UserRepository;
+import com.wallet.repository.WalletJdbcRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -21,93 +38,342 @@ import java.math.BigDecimal;
 public class WalletService {
 
     private final UserRepository userRepository;
-    private final TransactionRepository transactionRepository;
+    private final TransactionStore transactionStore;
+    private final WalletJdbcRepository walletJdbcRepository;
+    private final ObjectProvider<ShardedLedger> shardedLedger;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+    private final OperationMetrics operationMetrics;
+    private final RecipientCache recipientCache;
+    private final IdempotencyService idempotencyService;
+    private final ReadYourWrites readYourWrites;
+    private final LedgerVersions ledgerVersions;
+    private final WalletEvents walletEvents;
+    private final ProfileCache profileCache;
+    private final TransactionOutbox transactionOutbox;
+    private final HotAccountRegistry hotAccountRegistry;
 
-    @Transactional
     public WalletResponse addMoney(Long userId, AddMoneyRequest request) {
+        readYourWrites.markWrite(userId);
+        return operationMetrics.record("wallet.add", () -> doAddMoney(userId, request));
+    }
+
+    /**
+     * Moves money with two conditional, relative balance updates instead of read-modify-write, so
+     * the sender can never be overdrawn and no credit is lost to a concurrent writer. No row is
+     * locked before the update itself; deadlocks and lock timeouts are retried.
+     */
+    public WalletResponse transferMoney(Long fromUserId, TransferRequest request) {
+        readYourWrites.markWrite(fromUserId);
+        return operationMetrics.record("wallet.transfer", () -> doTransferMoney(fromUserId, request));
+    }
+
+    /**
+     * Applies many transfers from one sender in a single database transaction. Recipients are
+     * resolved with one query, and the debit, credits and history rows go out as JDBC batches.
+     * Items that fail validation or would overdraw the sender are reported individually and skipped.
+     */
+    public BatchTransferResponse transferBatch(Long fromUserId, List<TransferRequest> requests) {
+        readYourWrites.markWrite(fromUserId);
+        return operationMetrics.record("wallet.transfer.batch", () -> doTransferBatch(fromUserId, requests));
+    }
+
+    private WalletResponse doAddMoney(Long userId, AddMoneyRequest request) {
         log.info("Adding {} to user {} balance", request.getAmount(), userId);
 
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (!request.getAmount().isPositive()) {
             throw new ApiException("Amount must be greater than 0");
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found", 404));
+        ShardedLedger ledger = shardedLedger.getIfAvailable();
+        if (ledger != null) {
+            LedgerResult result = ledger.addMoney(userId, request.getAmount().minorUnits());
+            log.info("Successfully added {} to user {}. New balance: {}. Ledger entry: {}",
+                    request.getAmount(), userId, Money.ofMinor(result.getBalance()), result.getSequence());
+            return new WalletResponse(true, Money.ofMinor(result.getBalance()), result.getSequence());
+        }
 
-        // Update balance
-        BigDecimal newBalance = user.getBalance().add(request.getAmount());
-        user.setBalance(newBalance);
-        userRepository.save(user);
+        return retryingTransactionExecutor.execute("add", () -> {
+            // Relative update, so concurrent credits to the account cannot overwrite each other
+            if (!walletJdbcRepository.credit(userId, request.getAmount())) {
+                throw new ApiException("User not found", 404);
+            }
 
-        // Create transaction record
-        Transaction transaction = new Transaction();
-        transaction.setUser(user);
-        transaction.setType(Transaction.TransactionType.ADD);
-        transaction.setAmount(request.getAmount());
-        Transaction savedTransaction = transactionRepository.save(transaction);
+            // Create transaction record
+            TransactionStore.Recorded recorded =
+                    transactionStore.recordAdd(userRepository.getReferenceById(userId), request.getAmount());
+            transactionOutbox.append(
+                    new TransactionStore.Posting(null, userId, request.getAmount(), recorded.timestamp()), recorded);
+            Long transactionId = recorded.toRowId();
+            ledgerVersions.advanced(userId, transactionId);
+            Money newBalance = walletJdbcRepository.findBalance(userId);
+            profileCache.balanceChanged(userId, transactionId, newBalance);
+            if (walletEvents.hasSubscribers(userId)) {
+                walletEvents.publish(userId, new WalletEvent(newBalance, new TransactionDto(
+                        transactionId, TransactionType.ADD, request.getAmount(), null, recorded.timestamp())));
+            }
 
-        log.info("Successfully added {} to user {}. New balance: {}. Transaction ID: {}", 
-                request.getAmount(), userId, newBalance, savedTransaction.getId());
+            log.info("Successfully added {} to user {}. New balance: {}. Transaction ID: {}", 
+                    request.getAmount(), userId, newBalance, transactionId);
 
-        return new WalletResponse(true, newBalance, savedTransaction.getId());
+            return idempotencyService.record(new WalletResponse(true, newBalance, transactionId));
+        });
     }
 
-    @Transactional
-    public WalletResponse transferMoney(Long fromUserId, TransferRequest request) {
+    private WalletResponse doTransferMoney(Long fromUserId, TransferRequest request) {
         log.info("Transfer request: {} from user {} to {}", 
                 request.getAmount(), fromUserId, request.getToEmail());
 
         // Validate amount
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (!request.getAmount().isPositive()) {
             throw new ApiException("Amount must be greater than 0");
         }
 
-        // Get sender
-        User fromUser = userRepository.findById(fromUserId)
-                .orElseThrow(() -> new ApiException("User not found", 404));
+        ShardedLedger ledger = shardedLedger.getIfAvailable();
+        if (ledger != null) {
+            return transferOnLedger(ledger, fromUserId, request);
+        }
 
-        // Get recipient
-        User toUser = userRepository.findByEmail(request.getToEmail())
-                .orElseThrow(() -> new ApiException("Recipient not found with email: " + request.getToEmail(), 404));
+        Long toUserId = resolveRecipient(request.getToEmail());
 
         // Prevent self-transfer
-        if (fromUser.getId().equals(toUser.getId())) {
+        if (fromUserId.equals(toUserId)) {
             throw new ApiException("Cannot transfer to yourself");
         }
 
-        // Check sufficient balance
-        if (fromUser.getBalance().compareTo(request.getAmount()) < 0) {
-            log.warn("Insufficient balance for user {}. Balance: {}, Required: {}", 
-                    fromUserId, fromUser.getBalance(), request.getAmount());
-            throw new ApiException("Insufficient balance");
+        return retryingTransactionExecutor.execute("transfer", () -> {
+            // Update balances by primary key in ascending id order, so opposite transfers between
+            // the same two accounts take their row locks in the same order
+            boolean debited;
+            if (fromUserId < toUserId) {
+                debited = walletJdbcRepository.debitIfSufficient(fromUserId, request.getAmount());
+                if (debited) {
+                    creditRecipient(toUserId, request);
+                }
+            } else {
+                creditRecipient(toUserId, request);
+                debited = walletJdbcRepository.debitIfSufficient(fromUserId, request.getAmount());
+            }
+
+            // Check sufficient balance; a failed debit rolls back the credit with it
+            if (!debited) {
+                if (!userRepository.existsById(fromUserId)) {
+                    throw new ApiException("User not found", 404);
+                }
+                log.warn("Insufficient balance for user {}. Required: {}", fromUserId, request.getAmount());
+                throw ApiException.insufficientBalance();
+            }
+
+            // Record the transfer for both parties' history
+            TransactionStore.Recorded recorded = transactionStore.recordTransfer(
+                    userRepository.getReferenceById(fromUserId), userRepository.getReferenceById(toUserId),
+                    request.getAmount());
+            transactionOutbox.append(new TransactionStore.Posting(
+                    fromUserId, toUserId, request.getAmount(), recorded.timestamp()), recorded);
+            Long transactionId = recorded.fromRowId();
+            ledgerVersions.advanced(fromUserId, transactionId);
+            ledgerVersions.advanced(toUserId, recorded.toRowId());
+            Money newBalance = walletJdbcRepository.findBalance(fromUserId);
+            // The recipient's balance costs a query, so it is only read when something here uses it
+            boolean recipientWatched = walletEvents.hasSubscribers(toUserId) || profileCache.isCached(toUserId);
+            Money recipientBalance = recipientWatched ? walletJdbcRepository.findBalance(toUserId) : null;
+            profileCache.balanceChanged(fromUserId, transactionId, newBalance);
+            profileCache.balanceChanged(toUserId, recorded.toRowId(), recipientBalance);
+            if (walletEvents.hasSubscribers(fromUserId)) {
+                walletEvents.publish(fromUserId, new WalletEvent(newBalance, new TransactionDto(
+                        transactionId, TransactionType.SEND, request.getAmount(), request.getToEmail(),
+                        recorded.timestamp())));
+            }
+            if (walletEvents.hasSubscribers(toUserId)) {
+                walletEvents.publish(toUserId, new WalletEvent(recipientBalance,
+                        new TransactionDto(recorded.toRowId(), TransactionType.RECEIVE, request.getAmount(),
+                                userRepository.getReferenceById(fromUserId).getEmail(), recorded.timestamp())));
+            }
+
+            log.info("Transfer successful. Transaction ID: {}. Sender new balance: {}", transactionId, newBalance);
+
+            return idempotencyService.record(new WalletResponse(true, newBalance, transactionId));
+        });
+    }
+
+    private BatchTransferResponse doTransferBatch(Long fromUserId, List<TransferRequest> requests) {
+        log.info("Batch transfer request: {} transfers from user {}", requests.size(), fromUserId);
+
+        ShardedLedger ledger = shardedLedger.getIfAvailable();
+        if (ledger != null) {
+            return transferBatchOnLedger(ledger, fromUserId, requests);
         }
 
-        // Update balances
-        fromUser.setBalance(fromUser.getBalance().subtract(request.getAmount()));
-        toUser.setBalance(toUser.getBalance().add(request.getAmount()));
-        
-        userRepository.save(fromUser);
-        userRepository.save(toUser);
-
-        // Create SEND transaction for sender
-        Transaction sendTransaction = new Transaction();
-        sendTransaction.setUser(fromUser);
-        sendTransaction.setType(Transaction.TransactionType.SEND);
-        sendTransaction.setAmount(request.getAmount());
-        sendTransaction.setToUser(toUser);
-        Transaction savedSendTransaction = transactionRepository.save(sendTransaction);
-
-        // Create RECEIVE transaction for recipient
-        Transaction receiveTransaction = new Transaction();
-        receiveTransaction.setUser(toUser);
-        receiveTransaction.setType(Transaction.TransactionType.RECEIVE);
-        receiveTransaction.setAmount(request.getAmount());
-        receiveTransaction.setToUser(fromUser);
-        transactionRepository.save(receiveTransaction);
-
-        log.info("Transfer successful. Transaction ID: {}. Sender new balance: {}, Recipient new balance: {}", 
-                savedSendTransaction.getId(), fromUser.getBalance(), toUser.getBalance());
-
-        return new WalletResponse(true, fromUser.getBalance(), savedSendTransaction.getId());
+        return retryingTransactionExecutor.execute("batch-transfer", () -> transferBatchInDatabase(fromUserId, requests));
+    }
+
+    private BatchTransferResponse transferBatchInDatabase(Long fromUserId, List<TransferRequest> requests) {
+        User fromUser = userRepository.findById(fromUserId)
+                .orElseThrow(() -> new ApiException("User not found", 404));
+
+        Map<String, Long> recipientIds = resolveRecipients(requests);
+
+        Money spendable = hotAccountRegistry.spendableBalance(fromUser);
+        Money available = spendable;
+        Money totalDebit = Money.ZERO;
+        Map<Long, Money> credits = new LinkedHashMap<>();
+        List<TransactionStore.Posting> postings = new ArrayList<>();
+        BatchTransferResult[] results = new BatchTransferResult[requests.size()];
+        Map<Integer, Integer> postingByItem = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            Long toUserId = recipientIds.get(request.getToEmail());
+            String failure = null;
+
+            if (!request.getAmount().isPositive()) {
+                failure = "Amount must be greater than 0";
+            } else if (toUserId == null) {
+                failure = "Recipient not found with email: " + request.getToEmail();
+            } else if (toUserId.equals(fromUserId)) {
+                failure = "Cannot transfer to yourself";
+            } else if (available.isLessThan(request.getAmount())) {
+                failure = "Insufficient balance";
+            }
+
+            if (failure != null) {
+                results[i] = new BatchTransferResult(i, request.getToEmail(), request.getAmount(), false, null, failure);
+                continue;
+            }
+
+            available = available.minus(request.getAmount());
+            totalDebit = totalDebit.plus(request.getAmount());
+            credits.merge(toUserId, request.getAmount(), Money::plus);
+
+            postingByItem.put(i, postings.size());
+            postings.add(new TransactionStore.Posting(fromUserId, toUserId, request.getAmount(), now));
+        }
+
+        Money newBalance = spendable;
+        if (!postings.isEmpty()) {
+            // Conditional debit guards against a concurrent spend since the balance was read;
+            // the whole batch is then re-planned against the new balance
+            if (!walletJdbcRepository.debitIfSufficient(fromUserId, totalDebit)) {
+                throw new OptimisticLockingFailureException("Balance of user " + fromUserId + " changed during batch transfer");
+            }
+            walletJdbcRepository.creditAll(credits);
+            List<TransactionStore.Recorded> recorded = transactionStore.recordAll(postings);
+            transactionOutbox.appendAll(postings, recorded);
+            long senderVersion = recorded.get(recorded.size() - 1).fromRowId();
+            ledgerVersions.advanced(fromUserId, senderVersion);
+            ledgerVersions.changed(credits.keySet());
+            newBalance = walletJdbcRepository.findBalance(fromUserId);
+            profileCache.balanceChanged(fromUserId, senderVersion, newBalance);
+            profileCache.invalidate(credits.keySet());
+
+            for (Map.Entry<Integer, Integer> item : postingByItem.entrySet()) {
+                TransferRequest request = requests.get(item.getKey());
+                results[item.getKey()] = new BatchTransferResult(item.getKey(), request.getToEmail(),
+                        request.getAmount(), true, recorded.get(item.getValue()).fromRowId(), null);
+            }
+            publishBatch(fromUser, newBalance, postings, recorded, requests, postingByItem);
+        }
+
+        log.info("Batch transfer from user {} done. Succeeded: {}, failed: {}, debited: {}",
+                fromUserId, postingByItem.size(), requests.size() - postingByItem.size(), totalDebit);
+
+        return new BatchTransferResponse(postingByItem.size(), requests.size() - postingByItem.size(),
+                newBalance, List.of(results));
+    }
+
+    /**
+     * Publishes a batch's history rows to whoever is subscribed. Balances are the ones after the
+     * whole batch, since the intermediate ones were never visible to anyone.
+     */
+    private void publishBatch(User fromUser, Money senderBalance, List<TransactionStore.Posting> postings,
+                              List<TransactionStore.Recorded> recorded, List<TransferRequest> requests,
+                              Map<Integer, Integer> postingByItem) {
+        boolean senderSubscribed = walletEvents.hasSubscribers(fromUser.getId());
+        Map<Long, Money> recipientBalances = new HashMap<>();
+        for (Map.Entry<Integer, Integer> item : postingByItem.entrySet()) {
+            TransferRequest request = requests.get(item.getKey());
+            TransactionStore.Posting posting = postings.get(item.getValue());
+            TransactionStore.Recorded rows = recorded.get(item.getValue());
+            if (senderSubscribed) {
+                walletEvents.publish(fromUser.getId(), new WalletEvent(senderBalance, new TransactionDto(
+                        rows.fromRowId(), TransactionType.SEND, posting.getAmount(), request.getToEmail(), rows.timestamp())));
+            }
+            Long toUserId = posting.getToUserId();
+            if (walletEvents.hasSubscribers(toUserId)) {
+                Money balance = recipientBalances.computeIfAbsent(toUserId, walletJdbcRepository::findBalance);
+                walletEvents.publish(toUserId, new WalletEvent(balance, new TransactionDto(
+                        rows.toRowId(), TransactionType.RECEIVE, posting.getAmount(), fromUser.getEmail(), rows.timestamp())));
+            }
+        }
+    }
+
+    private BatchTransferResponse transferBatchOnLedger(ShardedLedger ledger, Long fromUserId, List<TransferRequest> requests) {
+        Map<String, Long> recipientIds = resolveRecipients(requests);
+        List<BatchTransferResult> results = new ArrayList<>(requests.size());
+        Long balance = null;
+        int succeeded = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            Long toUserId = recipientIds.get(request.getToEmail());
+            try {
+                if (!request.getAmount().isPositive()) {
+                    throw new ApiException("Amount must be greater than 0");
+                }
+                if (toUserId == null) {
+                    throw ApiException.recipientNotFound(request.getToEmail());
+                }
+                if (toUserId.equals(fromUserId)) {
+                    throw new ApiException("Cannot transfer to yourself");
+                }
+                LedgerResult result = ledger.transfer(fromUserId, toUserId, request.getAmount().minorUnits());
+                balance = result.getBalance();
+                succeeded++;
+                results.add(new BatchTransferResult(i, request.getToEmail(), request.getAmount(), true, result.getSequence(), null));
+            } catch (ApiException e) {
+                results.add(new BatchTransferResult(i, request.getToEmail(), request.getAmount(), false, null, e.getMessage()));
+            }
+        }
+
+        Money newBalance = Money.ofMinor(balance != null ? balance : ledger.balance(fromUserId));
+        return new BatchTransferResponse(succeeded, requests.size() - succeeded, newBalance, results);
+    }
+
+    private Long resolveRecipient(String email) {
+        return recipientCache.findId(email)
+                .orElseThrow(() -> ApiException.recipientNotFound(email));
+    }
+
+    private Map<String, Long> resolveRecipients(List<TransferRequest> requests) {
+        return recipientCache.findIds(requests.stream().map(TransferRequest::getToEmail).distinct().toList());
+    }
+
+    /**
+     * Credits a recipient resolved from the cache. A missing row means the cached mapping went
+     * stale, so it is dropped and the transfer fails as if the email had not been found.
+     */
+    private void creditRecipient(Long toUserId, TransferRequest request) {
+        if (!walletJdbcRepository.credit(toUserId, request.getAmount())) {
+            recipientCache.invalidate(request.getToEmail());
+            throw ApiException.recipientNotFound(request.getToEmail());
+        }
+    }
+
+    /**
+     * Transfer through the in-memory ledger; balances and history rows reach the database
+     * asynchronously, and the returned transaction id is the ledger entry sequence.
+     */
+    private WalletResponse transferOnLedger(ShardedLedger ledger, Long fromUserId, TransferRequest request) {
+        Long toUserId = resolveRecipient(request.getToEmail());
+
+        if (fromUserId.equals(toUserId)) {
+            throw new ApiException("Cannot transfer to yourself");
+        }
+
+        LedgerResult result = ledger.transfer(fromUserId, toUserId, request.getAmount().minorUnits());
+        Money newBalance = Money.ofMinor(result.getBalance());
+
+        log.info("Transfer successful. Ledger entry: {}. Sender new balance: {}", result.getSequence(), newBalance);
+        return new WalletResponse(true, newBalance, result.getSequence());
     }
 }
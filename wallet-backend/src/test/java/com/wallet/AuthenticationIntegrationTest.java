@@ -0,0 +1,100 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.ChangePasswordRequest;
+import com.wallet.dto.RegisterRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthenticationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String userEmail;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userEmail = "auth-" + UUID.randomUUID() + "@example.com";
+        RegisterRequest registerRequest = new RegisterRequest("Auth User", userEmail, "password123");
+
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testStatelessTokenAuthenticates() throws Exception {
+        String token = login("password123");
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(userEmail));
+    }
+
+    @Test
+    void testLogoutRevokesToken() throws Exception {
+        String token = login("password123");
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", token))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testPasswordChangeRevokesTokenAndAcceptsNewPassword() throws Exception {
+        String otherSession = login("password123");
+        String token = login("password123");
+        ChangePasswordRequest changeRequest = new ChangePasswordRequest("password123", "newPassword456");
+
+        mockMvc.perform(put("/api/users/me/password")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changeRequest)))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isForbidden());
+        // Usually issued within the same second as the change
+        mockMvc.perform(get("/api/users/me").header("Authorization", otherSession))
+                .andExpect(status().isForbidden());
+
+        String newToken = login("newPassword456");
+        mockMvc.perform(get("/api/users/me").header("Authorization", newToken))
+                .andExpect(status().isOk());
+    }
+
+    private String login(String password) throws Exception {
+        AuthRequest authRequest = new AuthRequest(userEmail, password);
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
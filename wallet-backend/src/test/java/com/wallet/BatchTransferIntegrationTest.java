@@ -0,0 +1,112 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.BatchTransferRequest;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchTransferIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+    private String recipient1;
+    private String recipient2;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String sender = register("Batch Sender");
+        recipient1 = register("Batch Recipient One");
+        recipient2 = register("Batch Recipient Two");
+        token = login(sender);
+
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse("100.00")))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testBatchTransferReportsPerItemResults() throws Exception {
+        BatchTransferRequest batch = new BatchTransferRequest(List.of(
+                new TransferRequest(recipient1, Money.parse("30.00")),
+                new TransferRequest("missing-" + UUID.randomUUID() + "@example.com", Money.parse("10.00")),
+                new TransferRequest(recipient2, Money.parse("50.00")),
+                new TransferRequest(recipient1, Money.parse("25.00"))
+        ));
+
+        mockMvc.perform(post("/api/wallet/transfers/batch")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.balance").value(20.00))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].transactionId").isNumber())
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[2].success").value(true))
+                .andExpect(jsonPath("$.results[3].message").value("Insufficient balance"));
+
+        String recipientToken = login(recipient1);
+        mockMvc.perform(get("/api/users/me").header("Authorization", recipientToken))
+                .andExpect(jsonPath("$.balance").value(30.00));
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", recipientToken))
+                .andExpect(jsonPath("$.content[0].type").value("RECEIVE"));
+    }
+
+    @Test
+    void testEmptyBatchIsRejected() throws Exception {
+        mockMvc.perform(post("/api/wallet/transfers/batch")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchTransferRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String register(String name) throws Exception {
+        String email = "batch-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
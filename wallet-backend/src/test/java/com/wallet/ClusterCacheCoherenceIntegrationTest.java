@@ -0,0 +1,102 @@
+package com.wallet;
+
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.dto.UserDto;
+import com.wallet.model.Money;
+import com.wallet.service.AuthService;
+import com.wallet.service.UserService;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two instances as separate application contexts in one JVM, sharing one H2 database. Ledger
+ * versions are given a TTL far beyond the test, so only the invalidation bus can make the second
+ * instance see a change made on the first.
+ */
+class ClusterCacheCoherenceIntegrationTest {
+
+    @Test
+    void testLoopbackTransportKeepsInstancesCoherent() throws Exception {
+        assertCoherent("loopback");
+    }
+
+    @Test
+    void testJdbcTransportKeepsInstancesCoherent() throws Exception {
+        assertCoherent("jdbc");
+    }
+
+    private void assertCoherent(String transport) throws Exception {
+        String database = "cluster-" + transport + "-" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(transport, database, 1, "create");
+             ConfigurableApplicationContext second = start(transport, database, 2, "none")) {
+            AuthService auth = first.getBean(AuthService.class);
+            WalletService firstWallet = first.getBean(WalletService.class);
+            UserService secondUsers = second.getBean(UserService.class);
+
+            UserDto sender = auth.register(new RegisterRequest("Cluster Sender", email(), "password123"));
+            UserDto recipient = auth.register(new RegisterRequest("Cluster Recipient", email(), "password123"));
+            // JPA ids come from the generator of the instance doing the insert, not of the last one started
+            assertEquals(1, sender.getId() & 0xF);
+            UserDto registeredOnSecond = second.getBean(AuthService.class)
+                    .register(new RegisterRequest("Second Node User", email(), "password123"));
+            assertEquals(2, registeredOnSecond.getId() & 0xF);
+
+            firstWallet.addMoney(sender.getId(), new AddMoneyRequest(Money.parse("10.00")));
+
+            // Both profiles are now cached on the second instance
+            assertEquals(Money.parse("10.00"), secondUsers.getCurrentUser(sender.getEmail()).getBalance());
+            assertEquals(Money.ZERO, secondUsers.getCurrentUser(recipient.getEmail()).getBalance());
+
+            firstWallet.transferMoney(sender.getId(), new TransferRequest(recipient.getEmail(), Money.parse("4.00")));
+
+            awaitEquals(Money.parse("6.00"), () -> secondUsers.getCurrentUser(sender.getEmail()).getBalance());
+            awaitEquals(Money.parse("4.00"), () -> secondUsers.getCurrentUser(recipient.getEmail()).getBalance());
+
+            // The address moves to a new account; registering it on the first instance must replace
+            // the second instance's cached email-to-id mapping
+            String email = recipient.getEmail();
+            first.getBean(JdbcTemplate.class).update("UPDATE users SET email = ? WHERE id = ?", email(), recipient.getId());
+            UserDto newOwner = auth.register(new RegisterRequest("New Owner", email, "password123"));
+
+            awaitEquals(newOwner.getId(), () -> secondUsers.getCurrentUser(email).getId());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String transport, String database, int node, String ddl) {
+        return new SpringApplicationBuilder(WalletBackendApplication.class)
+                .profiles("test")
+                // As arguments: default properties would lose to application.properties
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                        "--wallet.id.node-id=" + node,
+                        "--wallet.ledger-versions.ttl-ms=600000",
+                        "--wallet.cache-bus.transport=" + transport,
+                        "--wallet.cache-bus.flush-interval-ms=20",
+                        "--wallet.cache-bus.jdbc.poll-interval-ms=50",
+                        "--logging.level.com.wallet=WARN");
+    }
+
+    private static <T> void awaitEquals(T expected, Supplier<T> actual) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(actual.get()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, actual.get());
+    }
+
+    private static String email() {
+        return "cluster-" + UUID.randomUUID() + "@example.com";
+    }
+}
@@ -0,0 +1,135 @@
+package com.wallet;
+
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.exception.ApiException;
+import com.wallet.model.Money;
+import com.wallet.model.User;
+import com.wallet.repository.UserRepository;
+import com.wallet.service.RetryingTransactionExecutor;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ConcurrentTransferIntegrationTest {
+
+    private static final int ACCOUNTS = 5;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RetryingTransactionExecutor retryingTransactionExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User user = new User();
+            user.setName("Concurrent User " + i);
+            user.setEmail("concurrent-" + UUID.randomUUID() + "@example.com");
+            user.setPassword(passwordEncoder.encode("password123"));
+            users.add(userRepository.save(user));
+            walletService.addMoney(user.getId(), new AddMoneyRequest(Money.parse("50.00")));
+        }
+    }
+
+    @Test
+    void testConcurrentTransfersNeverOverdrawOrLoseMoney() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        AtomicInteger succeeded = new AtomicInteger();
+
+        for (int i = 0; i < 400; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                User from = users.get(random.nextInt(ACCOUNTS));
+                User to = users.get(random.nextInt(ACCOUNTS));
+                if (from.getId().equals(to.getId())) {
+                    return;
+                }
+                try {
+                    walletService.transferMoney(from.getId(),
+                            new TransferRequest(to.getEmail(), Money.ofMinor(random.nextInt(1, 2500))));
+                    succeeded.incrementAndGet();
+                } catch (ApiException e) {
+                    assertEquals("Insufficient balance", e.getMessage());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (User user : users) {
+            BigDecimal balance = balanceOf(user);
+            assertTrue(balance.signum() >= 0, "balance must never go negative");
+            total = total.add(balance);
+        }
+        assertEquals(new BigDecimal("250.00"), total);
+        assertTrue(succeeded.get() > 0);
+    }
+
+    @Test
+    void testConflictsAreRetriedWithBoundedAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        double retriesBefore = meterRegistry.counter("wallet.concurrency.retries", "operation", "test").count();
+
+        String result = retryingTransactionExecutor.execute("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("simulated conflict");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(retriesBefore + 2, meterRegistry.counter("wallet.concurrency.retries", "operation", "test").count());
+
+        ApiException exhausted = assertThrows(ApiException.class, () -> retryingTransactionExecutor.execute("test", () -> {
+            throw new OptimisticLockingFailureException("always conflicting");
+        }));
+        assertEquals(409, exhausted.getStatusCode());
+        assertEquals(1, meterRegistry.counter("wallet.concurrency.exhausted", "operation", "test").count());
+    }
+
+    private BigDecimal balanceOf(User user) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM users WHERE id = ?", BigDecimal.class, user.getId());
+    }
+}
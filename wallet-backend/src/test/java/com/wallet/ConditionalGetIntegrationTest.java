@@ -0,0 +1,153 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String email;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        email = register("ETag User");
+        token = login(email);
+        addMoney(token, "10.00");
+    }
+
+    @Test
+    void testUnchangedProfileIsAnsweredWithNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.balance").value(10.00))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        double statementsBefore = statements("/api/users/me").totalAmount();
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // The version was cached by the first request, so the poll issued no SQL at all
+        assertEquals(statementsBefore, statements("/api/users/me").totalAmount());
+
+        addMoney(token, "5.00");
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.balance").value(15.00));
+    }
+
+    @Test
+    void testHistoryChangesVersionForBothSidesOfTransfer() throws Exception {
+        String recipient = register("ETag Recipient");
+        String recipientToken = login(recipient);
+        String senderTag = transactionsETag(token);
+        String recipientTag = transactionsETag(recipientToken);
+
+        mockMvc.perform(get("/api/wallet/transactions")
+                        .header("Authorization", recipientToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, recipientTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(recipient, Money.parse("4.00")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/wallet/transactions")
+                        .header("Authorization", recipientToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, recipientTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].type").value("RECEIVE"));
+        mockMvc.perform(get("/api/wallet/transactions")
+                        .header("Authorization", token)
+                        .header(HttpHeaders.IF_NONE_MATCH, senderTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    void testETagsDifferBetweenUsersWithoutHistory() throws Exception {
+        String first = register("Empty One");
+        String second = register("Empty Two");
+        assertNotEquals(transactionsETag(login(first)), transactionsETag(login(second)));
+    }
+
+    private String transactionsETag(String token) throws Exception {
+        return mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void addMoney(String token, String amount) throws Exception {
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse(amount)))))
+                .andExpect(status().isOk());
+    }
+
+    private DistributionSummary statements(String uri) {
+        return meterRegistry.get("wallet.http.db.statements").tag("method", "GET").tag("uri", uri).summary();
+    }
+
+    private String register(String name) throws Exception {
+        String email = "etag-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
@@ -0,0 +1,233 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.BatchTransferRequest;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import com.wallet.repository.DoubleEntryTransactionStore;
+import com.wallet.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:doubleentry",
+        "wallet.transactions.storage=double-entry"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DoubleEntryStorageIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoubleEntryTransactionStore doubleEntryTransactionStore;
+
+    private String sender;
+    private String recipient;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = register("Journal Sender");
+        recipient = register("Journal Recipient");
+        token = login(sender);
+
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse("100.00")))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(recipient, Money.parse("30.00")))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/wallet/transfers/batch")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchTransferRequest(List.of(
+                        new TransferRequest(recipient, Money.parse("10.00")),
+                        new TransferRequest(recipient, Money.parse("5.00")))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2));
+    }
+
+    @Test
+    void testEachTransferIsStoredAsOneEntry() {
+        Long senderId = userRepository.findByEmail(sender).orElseThrow().getId();
+
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM journal_entries WHERE debit_user_id = ? OR credit_user_id = ?",
+                Integer.class, senderId, senderId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE user_id = ?", Integer.class, senderId));
+    }
+
+    @Test
+    void testHistoryIsBuiltFromBothSidesOfTheEntry() throws Exception {
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.content[0].type").value("SEND"))
+                .andExpect(jsonPath("$.content[0].toEmail").value(recipient))
+                .andExpect(jsonPath("$.content[0].fromEmail").doesNotExist())
+                .andExpect(jsonPath("$.content[3].type").value("ADD"))
+                .andExpect(jsonPath("$.content[3].amount").value(100.00));
+
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", login(recipient)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].type").value("RECEIVE"))
+                .andExpect(jsonPath("$.content[0].fromEmail").value(sender))
+                .andExpect(jsonPath("$.content[0].toEmail").doesNotExist());
+
+        mockMvc.perform(get("/api/wallet/transactions")
+                .header("Authorization", token)
+                .param("page", "1")
+                .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].type").value("ADD"));
+    }
+
+    @Test
+    void testCursorPaginationWalksMergedHistory() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            var request = get("/api/wallet/transactions/history")
+                    .header("Authorization", token)
+                    .param("size", "1");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("transactions").forEach(transaction -> ids.add(transaction.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertEquals(4, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) > ids.get(i), "history must be newest first without duplicates");
+        }
+    }
+
+    @Test
+    void testLatestIdCoversBothSidesOfTheEntry() {
+        Long senderId = userRepository.findByEmail(sender).orElseThrow().getId();
+        Long recipientId = userRepository.findByEmail(recipient).orElseThrow().getId();
+        Long newest = jdbcTemplate.queryForObject(
+                "SELECT id FROM journal_entries WHERE debit_user_id = ? ORDER BY created_at DESC, id DESC LIMIT 1",
+                Long.class, senderId);
+
+        assertEquals(newest, doubleEntryTransactionStore.findLatestId(senderId));
+        assertEquals(newest, doubleEntryTransactionStore.findLatestId(recipientId));
+        assertEquals(0, doubleEntryTransactionStore.findLatestId(-1L));
+    }
+
+    @Test
+    void testExportStreamsMergedHistoryOldestFirst() throws Exception {
+        MvcResult pending = mockMvc.perform(get("/api/wallet/transactions/export")
+                        .header("Authorization", token)
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertEquals(4, rows.size());
+        assertEquals("ADD", rows.get(0).get("type").asText());
+        assertEquals(recipient, rows.get(1).get("toEmail").asText());
+        assertEquals("SEND", rows.get(3).get("type").asText());
+    }
+
+    @Test
+    void testMigrationCopiesMirroredRowsOnce() throws Exception {
+        String legacySender = register("Legacy Sender");
+        String legacyRecipient = register("Legacy Recipient");
+        Long senderId = userRepository.findByEmail(legacySender).orElseThrow().getId();
+        Long recipientId = userRepository.findByEmail(legacyRecipient).orElseThrow().getId();
+        Timestamp addedAt = Timestamp.valueOf(LocalDateTime.now().minusDays(2));
+        Timestamp sentAt = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+
+        String insert = "INSERT INTO transactions (id, user_id, type, amount, to_user_id, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(insert, 1L, senderId, "ADD", new BigDecimal("50.00"), null, addedAt);
+        jdbcTemplate.update(insert, 2L, senderId, "SEND", new BigDecimal("20.00"), recipientId, sentAt);
+        jdbcTemplate.update(insert, 3L, recipientId, "RECEIVE", new BigDecimal("20.00"), senderId, sentAt);
+
+        assertEquals(2, doubleEntryTransactionStore.migrateFromTransactions());
+        assertEquals(0, doubleEntryTransactionStore.migrateFromTransactions());
+
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", login(legacyRecipient)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(2))
+                .andExpect(jsonPath("$.content[0].type").value("RECEIVE"))
+                .andExpect(jsonPath("$.content[0].fromEmail").value(legacySender));
+
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", login(legacySender)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].type").value("SEND"))
+                .andExpect(jsonPath("$.content[1].type").value("ADD"));
+    }
+
+    private String register(String name) throws Exception {
+        String email = "journal-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
@@ -0,0 +1,13 @@
+package com.wallet;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the event stream tests against the double-entry store, which keeps one row per movement.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:doubleentryevents",
+        "wallet.transactions.storage=double-entry"
+})
+class DoubleEntryWalletEventsIntegrationTest extends WalletEventsIntegrationTest {
+}
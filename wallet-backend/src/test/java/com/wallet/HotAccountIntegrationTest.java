@@ -0,0 +1,131 @@
+package com.wallet;
+
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.exception.ApiException;
+import com.wallet.model.Money;
+import com.wallet.model.User;
+import com.wallet.repository.HotAccountRegistry;
+import com.wallet.repository.UserRepository;
+import com.wallet.service.HotAccountService;
+import com.wallet.service.UserService;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hotaccounts",
+        "wallet.hot-accounts.enabled=true",
+        "wallet.hot-accounts.slots=4",
+        "wallet.hot-accounts.consolidation-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class HotAccountIntegrationTest {
+
+    private static final int PAYERS = 8;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private HotAccountRegistry hotAccountRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User merchant;
+    private final List<User> payers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        merchant = newUser("Merchant");
+        hotAccountService.markHot(merchant.getId());
+        for (int i = 0; i < PAYERS; i++) {
+            User payer = newUser("Payer " + i);
+            walletService.addMoney(payer.getId(), new AddMoneyRequest(Money.parse("10.00")));
+            payers.add(payer);
+        }
+    }
+
+    @Test
+    void testCreditsLandOnSlotsAndReadsSumThem() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PAYERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (User payer : payers) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    walletService.transferMoney(payer.getId(), new TransferRequest(merchant.getEmail(), Money.parse("1.00")));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(hotAccountRegistry.isHot(merchant.getId()));
+        assertEquals(0, rowBalance(merchant).signum(), "credits must not touch the merchant row");
+        assertEquals(Money.parse("80.00"), userService.getCurrentUser(merchant.getEmail()).getBalance());
+        // The entity keeps the row balance; the slot total is added separately
+        User loaded = userRepository.findById(merchant.getId()).orElseThrow();
+        assertEquals(Money.ZERO, loaded.getBalance());
+        assertEquals(Money.parse("80.00"), hotAccountRegistry.spendableBalance(loaded));
+
+        hotAccountService.consolidate();
+
+        assertEquals(new BigDecimal("80.00"), rowBalance(merchant));
+        assertEquals(Money.parse("80.00"), userService.getCurrentUser(merchant.getEmail()).getBalance());
+    }
+
+    @Test
+    void testDebitSweepsSlotsWhenRowBalanceFallsShort() {
+        walletService.addMoney(merchant.getId(), new AddMoneyRequest(Money.parse("5.00")));
+        walletService.transferMoney(payers.get(0).getId(), new TransferRequest(merchant.getEmail(), Money.parse("10.00")));
+        assertEquals(0, rowBalance(merchant).signum());
+
+        var response = walletService.transferMoney(merchant.getId(),
+                new TransferRequest(payers.get(1).getEmail(), Money.parse("12.00")));
+
+        assertEquals(Money.parse("3.00"), response.getBalance());
+        assertEquals(new BigDecimal("3.00"), rowBalance(merchant));
+
+        ApiException insufficient = assertThrows(ApiException.class, () -> walletService.transferMoney(merchant.getId(),
+                new TransferRequest(payers.get(1).getEmail(), Money.parse("3.01"))));
+        assertEquals("Insufficient balance", insufficient.getMessage());
+    }
+
+    private User newUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail("hot-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        return userRepository.save(user);
+    }
+
+    private BigDecimal rowBalance(User user) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM users WHERE id = ?", BigDecimal.class, user.getId());
+    }
+}
@@ -0,0 +1,197 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.dto.UserDto;
+import com.wallet.dto.WalletResponse;
+import com.wallet.model.Money;
+import com.wallet.repository.IdempotencyRepository;
+import com.wallet.service.AuthService;
+import com.wallet.service.IdempotencyService;
+import com.wallet.service.UserService;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UserDto sender;
+    private UserDto recipient;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = register("Idempotent Sender");
+        recipient = register("Idempotent Recipient");
+        walletService.addMoney(sender.getId(), new AddMoneyRequest(Money.parse("100.00")));
+
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + sender.getEmail() + "\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        token = objectMapper.readTree(body).get("token").asText();
+    }
+
+    @Test
+    void testRetriedTransferIsAppliedOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(recipient.getEmail(), Money.parse("30.00"));
+
+        String first = transfer(key, request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String retry = transfer(key, request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retry);
+        assertEquals(Money.parse("70.00"), userService.getCurrentUser(sender.getEmail()).getBalance());
+        assertEquals(Money.parse("30.00"), userService.getCurrentUser(recipient.getEmail()).getBalance());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        transfer(key, new TransferRequest(recipient.getEmail(), Money.parse("1.00"))).andExpect(status().isOk());
+
+        transfer(key, new TransferRequest(recipient.getEmail(), Money.parse("2.00")))
+                .andExpect(status().isUnprocessableEntity());
+        assertEquals(Money.parse("99.00"), userService.getCurrentUser(sender.getEmail()).getBalance());
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForFirstRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(recipient.getEmail(), Money.parse("10.00"));
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<WalletResponse>> responses = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute(sender.getId(), key, "transfer", request, () -> {
+                    executions.incrementAndGet();
+                    return walletService.transferMoney(sender.getId(), request);
+                });
+            }));
+        }
+        start.countDown();
+
+        Set<Long> transactionIds = new HashSet<>();
+        for (Future<WalletResponse> response : responses) {
+            transactionIds.add(response.get().getTransactionId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(1, transactionIds.size());
+        assertEquals(Money.parse("90.00"), userService.getCurrentUser(sender.getEmail()).getBalance());
+    }
+
+    @Test
+    void testDurableRecordIsReplayedWhenMemoryIsEmpty() throws Exception {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(recipient.getEmail(), Money.parse("5.00"));
+        WalletResponse original = objectMapper.readValue(transfer(key, request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), WalletResponse.class);
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+                Integer.class, sender.getId(), key));
+
+        // A fresh store stands in for a restarted or different instance
+        IdempotencyService otherInstance = new IdempotencyService(
+                idempotencyRepository, objectMapper, meterRegistry, 86_400_000, 1_000, 1_000, "jpa");
+        WalletResponse replayed = otherInstance.execute(sender.getId(), key, "transfer", request, () -> {
+            throw new AssertionError("Replay must not run the transfer again");
+        });
+
+        assertEquals(original, replayed);
+        assertEquals(Money.parse("95.00"), userService.getCurrentUser(sender.getEmail()).getBalance());
+    }
+
+    @Test
+    void testFailedRequestIsNotRemembered() throws Exception {
+        String key = UUID.randomUUID().toString();
+        transfer(key, new TransferRequest(recipient.getEmail(), Money.parse("500.00")))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse("400.00")))))
+                .andExpect(status().isOk());
+
+        transfer(key, new TransferRequest(recipient.getEmail(), Money.parse("500.00")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0.00));
+    }
+
+    private ResultActions transfer(String key, TransferRequest request) throws Exception {
+        return mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", token)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private UserDto register(String name) {
+        String email = "idempotency-" + UUID.randomUUID() + "@example.com";
+        return authService.register(new RegisterRequest(name, email, "password123"));
+    }
+}
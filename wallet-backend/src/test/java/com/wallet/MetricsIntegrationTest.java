@@ -0,0 +1,116 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testWalletMetricsAreExposedInPrometheusFormat() throws Exception {
+        String sender = register("Metrics Sender");
+        String recipient = register("Metrics Recipient");
+        String token = login(sender);
+
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse("10.00")))))
+                .andExpect(status().isOk());
+        transfer(token, recipient, "4.00").andExpect(status().isOk());
+        transfer(token, recipient, "400.00").andExpect(status().isBadRequest());
+        transfer(token, "missing-" + UUID.randomUUID() + "@example.com", "1.00").andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "test-scrape-password")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("wallet_add_seconds_count{outcome=\"success\"}")))
+                .andExpect(content().string(containsString("wallet_transfer_seconds_count{outcome=\"success\"}")))
+                .andExpect(content().string(containsString("wallet_transfer_seconds_count{outcome=\"insufficient_funds\"}")))
+                .andExpect(content().string(containsString("wallet_transfer_seconds_count{outcome=\"recipient_not_found\"}")))
+                .andExpect(content().string(containsString("wallet_auth_login_seconds_count{outcome=\"success\"}")))
+                .andExpect(content().string(containsString("wallet_auth_password_hashing_seconds_count{operation=\"matches\"}")))
+                .andExpect(content().string(containsString("wallet_auth_user_lookup_seconds_count")))
+                .andExpect(content().string(containsString("wallet_jwt_verification_seconds_count{result=\"valid\"}")))
+                .andExpect(content().string(containsString("wallet_jwt_verification_seconds_count{result=\"invalid\"}")))
+                .andExpect(content().string(containsString("wallet_history_page_seconds_count{outcome=\"success\"}")))
+                .andExpect(content().string(containsString(
+                        "wallet_http_db_statements_count{method=\"GET\",uri=\"/api/wallet/transactions\"}")));
+    }
+
+    @Test
+    void testMetricsRequireScrapeCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong-password")))
+                .andExpect(status().isUnauthorized());
+        String token = login(register("Metrics User"));
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", token))
+                .andExpect(status().isUnauthorized());
+        // The generic metrics endpoint is not exposed at all
+        int metricsStatus = mockMvc.perform(get("/actuator/metrics").with(httpBasic("prometheus", "test-scrape-password")))
+                .andReturn().getResponse().getStatus();
+        assertNotEquals(200, metricsStatus);
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    private org.springframework.test.web.servlet.ResultActions transfer(String token, String toEmail, String amount) throws Exception {
+        return mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(toEmail, Money.parse(amount)))));
+    }
+
+    private String register(String name) throws Exception {
+        String email = "metrics-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
@@ -0,0 +1,136 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.exception.ApiException;
+import com.wallet.service.AuthService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:passwordhashing",
+        "wallet.auth.bcrypt.strength=10",
+        "wallet.auth.hashing.threads=1",
+        "wallet.auth.hashing.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordHashingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testLoginSpikeIsShedOnceHashingQueueIsFull() throws Exception {
+        String email = register();
+        int attempts = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+
+        for (int i = 0; i < attempts; i++) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                try {
+                    authService.login(new AuthRequest(email, "password123"));
+                    return 200;
+                } catch (ApiException e) {
+                    return e.getStatusCode();
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        int shed = 0;
+        for (Future<Integer> status : statuses) {
+            int code = status.get();
+            if (code == 200) {
+                succeeded++;
+            } else {
+                assertEquals(429, code);
+                shed++;
+            }
+        }
+        executor.shutdown();
+
+        // One hash runs and one waits; the rest are turned away instead of queueing
+        assertTrue(succeeded >= 1);
+        assertTrue(shed >= 1);
+        assertEquals(shed, meterRegistry.counter("wallet.auth.hashing.shed", "reason", "queue_full").count(), 0.0);
+        assertEquals(shed, meterRegistry.timer("wallet.auth.login", "outcome", "shed").count());
+    }
+
+    @Test
+    void testLegacyHashIsUpgradedOnLogin() throws Exception {
+        String email = register();
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE email = ?",
+                new BCryptPasswordEncoder(4).encode("password123"), email);
+
+        login(email);
+        String upgraded = passwordOf(email);
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$10$"), upgraded);
+
+        login(email);
+        assertEquals(upgraded, passwordOf(email));
+    }
+
+    @Test
+    void testNewPasswordsUseConfiguredStrengthWithPrefix() throws Exception {
+        String email = register();
+        assertTrue(passwordOf(email).startsWith("{bcrypt}$2a$10$"));
+    }
+
+    private String register() throws Exception {
+        String email = "hashing-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest("Hashing User", email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private void login(String email) throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk());
+    }
+
+    private String passwordOf(String email) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = ?", String.class, email);
+    }
+}
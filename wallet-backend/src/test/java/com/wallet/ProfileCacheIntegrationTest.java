@@ -0,0 +1,169 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.dto.UserDto;
+import com.wallet.model.Money;
+import com.wallet.service.AuthService;
+import com.wallet.service.LedgerVersions;
+import com.wallet.service.ProfileCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProfileCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UserDto sender;
+    private UserDto recipient;
+    private String senderToken;
+    private String recipientToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = register("Cached Sender");
+        recipient = register("Cached Recipient");
+        senderToken = login(sender.getEmail());
+        recipientToken = login(recipient.getEmail());
+        perform(senderToken, "/api/wallet/add", new AddMoneyRequest(Money.parse("50.00")));
+    }
+
+    @Test
+    void testCommittedTransferIsWrittenThroughForBothParties() throws Exception {
+        assertBalance(senderToken, 50.00);
+        assertBalance(recipientToken, 0.00);
+
+        perform(senderToken, "/api/wallet/transfer", new TransferRequest(recipient.getEmail(), Money.parse("20.00")));
+
+        double statementsBefore = statements().totalAmount();
+        assertBalance(senderToken, 30.00);
+        assertBalance(recipientToken, 20.00);
+        // Both entries were updated in place, so neither read went to the database
+        assertEquals(statementsBefore, statements().totalAmount());
+    }
+
+    @Test
+    void testRolledBackTransferLeavesCacheUntouched() throws Exception {
+        assertBalance(senderToken, 50.00);
+        LedgerVersions.Versioned<UserDto> before = profileCache.find(sender.getId()).orElseThrow();
+
+        mockMvc.perform(post("/api/wallet/transfer")
+                        .header("Authorization", senderToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferRequest(recipient.getEmail(), Money.parse("500.00")))))
+                .andExpect(status().isBadRequest());
+
+        assertSame(before, profileCache.find(sender.getId()).orElseThrow());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        UserDto cold = register("Cold Profile");
+        double loadsBefore = loads();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LedgerVersions.Versioned<UserDto>>> profiles = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            profiles.add(executor.submit(() -> {
+                start.await();
+                return profileCache.find(cold.getId()).orElseThrow();
+            }));
+        }
+        start.countDown();
+        for (Future<LedgerVersions.Versioned<UserDto>> profile : profiles) {
+            assertEquals(cold.getEmail(), profile.get().body().getEmail());
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads() - loadsBefore);
+        assertTrue(profileCache.findByEmail(cold.getEmail()).isPresent());
+        assertEquals(1, loads() - loadsBefore);
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        assertTrue(profileCache.findByEmail("nobody-" + UUID.randomUUID() + "@example.com").isEmpty());
+        assertTrue(profileCache.find(-1L).isEmpty());
+        assertFalse(profileCache.isCached(-1L));
+    }
+
+    private void assertBalance(String token, double balance) throws Exception {
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(balance));
+    }
+
+    private void perform(String token, String uri, Object body) throws Exception {
+        mockMvc.perform(post(uri)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk());
+    }
+
+    private DistributionSummary statements() {
+        return meterRegistry.get("wallet.http.db.statements").tag("method", "GET").tag("uri", "/api/users/me").summary();
+    }
+
+    private double loads() {
+        // Callers that find a load already in flight count as hits, so every miss is one load
+        return meterRegistry.get("cache.gets").tag("cache", "profiles").tag("result", "miss").functionCounter().count();
+    }
+
+    private UserDto register(String name) {
+        String email = "profile-" + UUID.randomUUID() + "@example.com";
+        return authService.register(new RegisterRequest(name, email, "password123"));
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
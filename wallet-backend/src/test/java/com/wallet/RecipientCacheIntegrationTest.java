@@ -0,0 +1,83 @@
+package com.wallet;
+
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.dto.UserDto;
+import com.wallet.model.Money;
+import com.wallet.service.AuthService;
+import com.wallet.service.UserService;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RecipientCacheIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRepeatedTransfersResolveRecipientFromCache() {
+        UserDto sender = register("Cache Sender");
+        UserDto recipient = register("Cache Recipient");
+        walletService.addMoney(sender.getId(), new AddMoneyRequest(Money.parse("10.00")));
+
+        double hitsBefore = gets("hit");
+        for (int i = 0; i < 5; i++) {
+            walletService.transferMoney(sender.getId(), new TransferRequest(recipient.getEmail(), Money.parse("1.00")));
+        }
+
+        assertTrue(gets("hit") - hitsBefore >= 4);
+        assertEquals(Money.parse("5.00"), userService.getCurrentUser(recipient.getEmail()).getBalance());
+    }
+
+    @Test
+    void testRegistrationReplacesCachedMappingForReusedEmail() {
+        UserDto sender = register("Cache Sender");
+        UserDto previousOwner = register("Previous Owner");
+        String email = previousOwner.getEmail();
+        walletService.addMoney(sender.getId(), new AddMoneyRequest(Money.parse("10.00")));
+        walletService.transferMoney(sender.getId(), new TransferRequest(email, Money.parse("1.00")));
+
+        // The address moves to a new account behind the cache's back, then is registered again
+        jdbcTemplate.update("UPDATE users SET email = ? WHERE id = ?",
+                "moved-" + UUID.randomUUID() + "@example.com", previousOwner.getId());
+        UserDto newOwner = authService.register(new RegisterRequest("New Owner", email, "password123"));
+
+        walletService.transferMoney(sender.getId(), new TransferRequest(email, Money.parse("2.00")));
+        assertEquals(Money.parse("2.00"), userService.getCurrentUser(email).getBalance());
+        assertEquals(newOwner.getId(), userService.getCurrentUser(email).getId());
+    }
+
+    private UserDto register(String name) {
+        String email = "recipient-cache-" + UUID.randomUUID() + "@example.com";
+        return authService.register(new RegisterRequest(name, email, "password123"));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "recipientIds").tag("result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,151 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.model.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against two H2 databases. Replication is simulated by copying the primary into the replica,
+ * after which the primary is changed behind the replica's back to stand in for replication lag.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "wallet.datasource.replica.url=jdbc:h2:mem:routing-replica",
+        "wallet.datasource.replica.read-your-writes-ms=1000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private String email;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        email = "routing-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest("Routing User", email, "password123"))))
+                .andExpect(status().isCreated());
+        token = login(email);
+    }
+
+    @Test
+    void testReadOnlyQueriesAreServedByReplica() throws Exception {
+        replicate();
+        primary.update("UPDATE users SET balance = 42.00 WHERE email = ?", email);
+        // Registration pins the new user to the primary for the window
+        Thread.sleep(1100);
+
+        double replicaReadsBefore = connections("replica");
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0.00));
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        assertEquals(2, connections("replica") - replicaReadsBefore);
+    }
+
+    @Test
+    void testOwnWriteIsReadFromPrimaryUntilWindowCloses() throws Exception {
+        replicate();
+        Thread.sleep(1100);
+
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse("10.00")))))
+                .andExpect(status().isOk());
+
+        // The write went to the primary only
+        assertEquals(0, replica.queryForObject(
+                "SELECT balance FROM users WHERE email = ?", BigDecimal.class, email).signum());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(10.00));
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        Thread.sleep(1100);
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void testNewUserIsReadFromPrimaryBeforeReplicaCatchesUp() throws Exception {
+        // Not replicated: the replica has never seen this user
+        mockMvc.perform(get("/api/users/me").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(email));
+    }
+
+    private void replicate() {
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT NOPASSWORDS NOSETTINGS", String.class)) {
+            replica.execute(statement);
+        }
+    }
+
+    private double connections(String target) {
+        return meterRegistry.counter("wallet.datasource.connections", "target", target).count();
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
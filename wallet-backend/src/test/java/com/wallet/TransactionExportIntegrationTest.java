@@ -0,0 +1,172 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "wallet.transactions.export-fetch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TransactionExportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String email;
+    private String recipient;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        email = register("Export User");
+        recipient = register("Export Recipient");
+        token = login(email);
+
+        for (int i = 1; i <= 5; i++) {
+            mockMvc.perform(post("/api/wallet/add")
+                    .header("Authorization", token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse(i + ".00")))))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(recipient, Money.parse("2.50")))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testCsvExportStreamsWholeHistoryOldestFirst() throws Exception {
+        MvcResult result = export(get("/api/wallet/transactions/export").header("Authorization", token));
+
+        assertEquals("text/csv", result.getResponse().getContentType());
+        assertEquals("attachment; filename=\"transactions.csv\"", result.getResponse().getHeader("Content-Disposition"));
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals("id,type,amount,to_email,from_email,timestamp", lines[0]);
+        assertEquals(7, lines.length);
+        assertTrue(lines[1].contains(",ADD,1.00,,,"), lines[1]);
+        assertTrue(lines[6].contains(",SEND,2.50," + recipient + ",,"), lines[6]);
+
+        long previousId = 0;
+        for (int i = 1; i < lines.length; i++) {
+            long id = Long.parseLong(lines[i].substring(0, lines[i].indexOf(',')));
+            assertTrue(id > previousId, "export must be oldest first without duplicates");
+            previousId = id;
+        }
+    }
+
+    @Test
+    void testNdjsonExportWritesOneObjectPerLine() throws Exception {
+        MvcResult result = export(get("/api/wallet/transactions/export")
+                .header("Authorization", login(recipient))
+                .param("format", "ndjson"));
+
+        assertEquals("application/x-ndjson", result.getResponse().getContentType());
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.endsWith("\n"));
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals("RECEIVE", row.get("type").asText());
+        assertEquals(2.50, row.get("amount").asDouble());
+        assertEquals(email, row.get("fromEmail").asText());
+    }
+
+    @Test
+    void testExportHonoursDateRange() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+        jdbcTemplate.update("UPDATE transactions SET timestamp = ? WHERE user_id = ? AND amount < 3",
+                Timestamp.valueOf(now.minusDays(10)), userId);
+
+        MvcResult result = export(get("/api/wallet/transactions/export")
+                .header("Authorization", token)
+                .param("from", now.minusDays(1).toString())
+                .param("to", now.plusDays(1).toString()));
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].contains(",ADD,3.00,"), lines[1]);
+
+        result = export(get("/api/wallet/transactions/export")
+                .header("Authorization", token)
+                .param("to", now.minusDays(1).toString()));
+        assertEquals(4, result.getResponse().getContentAsString().split("\n").length);
+    }
+
+    @Test
+    void testInvalidExportParametersAreRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/wallet/transactions/export")
+                .header("Authorization", token)
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported export format: xml"));
+
+        mockMvc.perform(get("/api/wallet/transactions/export")
+                .header("Authorization", token)
+                .param("from", "2024-02-01T00:00:00")
+                .param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/wallet/transactions/export")
+                .header("Authorization", token)
+                .param("from", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult export(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult pending = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk()).andReturn();
+    }
+
+    private String register(String name) throws Exception {
+        String email = "export-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
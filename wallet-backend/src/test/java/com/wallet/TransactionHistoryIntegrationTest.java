@@ -0,0 +1,136 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TransactionHistoryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String email;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        email = register("History User");
+        token = login(email);
+
+        for (int i = 1; i <= 5; i++) {
+            mockMvc.perform(post("/api/wallet/add")
+                    .header("Authorization", token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse(i + ".00")))))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void testCursorPaginationWalksWholeHistoryNewestFirst() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            var request = get("/api/wallet/transactions/history")
+                    .header("Authorization", token)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn();
+
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("transactions").forEach(transaction -> ids.add(transaction.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(5, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) > ids.get(i), "history must be newest first without duplicates");
+        }
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/wallet/transactions/history")
+                .header("Authorization", token)
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void testHistoryShowsCounterpartyEmails() throws Exception {
+        String recipient = register("History Recipient");
+        mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(recipient, Money.parse("4.00")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/wallet/transactions").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(6))
+                .andExpect(jsonPath("$.content[0].type").value("SEND"))
+                .andExpect(jsonPath("$.content[0].toEmail").value(recipient))
+                .andExpect(jsonPath("$.content[0].fromEmail").doesNotExist());
+
+        mockMvc.perform(get("/api/wallet/transactions/history").header("Authorization", login(recipient)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].type").value("RECEIVE"))
+                .andExpect(jsonPath("$.transactions[0].fromEmail").value(email));
+    }
+
+    private String register(String name) throws Exception {
+        String email = "history-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
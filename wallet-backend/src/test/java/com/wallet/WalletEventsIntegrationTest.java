@@ -0,0 +1,174 @@
+package com.wallet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.AuthRequest;
+import com.wallet.dto.AuthResponse;
+import com.wallet.dto.RegisterRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WalletEventsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String senderEmail;
+    private String senderToken;
+    private String recipientEmail;
+    private String recipientToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        senderEmail = register("Events Sender");
+        senderToken = login(senderEmail);
+        recipientEmail = register("Events Recipient");
+        recipientToken = login(recipientEmail);
+    }
+
+    @Test
+    void testCommittedTransferIsPushedToBothParties() throws Exception {
+        MockHttpServletResponse senderStream = subscribe(senderToken);
+        MockHttpServletResponse recipientStream = subscribe(recipientToken);
+
+        addMoney(senderToken, "50.00");
+        JsonNode added = awaitEvents(senderStream, 1).get(0);
+        assertEquals("ADD", added.at("/transaction/type").asText());
+        assertEquals(50.00, added.get("balance").asDouble());
+        assertFalse(added.at("/transaction/timestamp").isNull());
+
+        mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", senderToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(recipientEmail, Money.parse("20.00")))))
+                .andExpect(status().isOk());
+
+        JsonNode sent = awaitEvents(senderStream, 2).get(1);
+        assertEquals("SEND", sent.at("/transaction/type").asText());
+        assertEquals(recipientEmail, sent.at("/transaction/toEmail").asText());
+        assertEquals(30.00, sent.get("balance").asDouble());
+        assertFalse(sent.at("/transaction/timestamp").isNull());
+
+        JsonNode received = awaitEvents(recipientStream, 1).get(0);
+        assertEquals("RECEIVE", received.at("/transaction/type").asText());
+        assertEquals(senderEmail, received.at("/transaction/fromEmail").asText());
+        assertEquals(20.00, received.get("balance").asDouble());
+        assertFalse(received.at("/transaction/timestamp").isNull());
+
+        // The pushed row is the one the history endpoint serves
+        String history = mockMvc.perform(get("/api/wallet/transactions").header("Authorization", recipientToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(objectMapper.readTree(history).at("/content/0/id").asLong(),
+                received.at("/transaction/id").asLong());
+    }
+
+    @Test
+    void testRolledBackTransferIsNotPushed() throws Exception {
+        MockHttpServletResponse senderStream = subscribe(senderToken);
+        MockHttpServletResponse recipientStream = subscribe(recipientToken);
+
+        // Insufficient balance: the credit to the recipient is rolled back with the transfer
+        mockMvc.perform(post("/api/wallet/transfer")
+                .header("Authorization", senderToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TransferRequest(recipientEmail, Money.parse("5.00")))))
+                .andExpect(status().isBadRequest());
+        addMoney(recipientToken, "1.00");
+
+        // The recipient's next event is the add, not the rolled-back credit
+        JsonNode next = awaitEvents(recipientStream, 1).get(0);
+        assertEquals("ADD", next.at("/transaction/type").asText());
+        assertEquals(1.00, next.get("balance").asDouble());
+        assertEquals(0, events(senderStream).size());
+    }
+
+    @Test
+    void testStreamRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/api/wallet/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isForbidden());
+    }
+
+    private MockHttpServletResponse subscribe(String token) throws Exception {
+        return mockMvc.perform(get("/api/wallet/events")
+                        .header("Authorization", token)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private List<JsonNode> awaitEvents(MockHttpServletResponse stream, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<JsonNode> events = events(stream);
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = events(stream);
+        }
+        assertEquals(count, events.size());
+        return events;
+    }
+
+    private List<JsonNode> events(MockHttpServletResponse stream) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        String content = stream.getContentAsString();
+        // Only events already terminated by their blank line; the last one may still be in flight
+        String complete = content.substring(0, content.lastIndexOf("\n\n") + 1);
+        for (String line : complete.split("\n")) {
+            if (line.startsWith("data:")) {
+                events.add(objectMapper.readTree(line.substring("data:".length())));
+            }
+        }
+        return events;
+    }
+
+    private void addMoney(String token, String amount) throws Exception {
+        mockMvc.perform(post("/api/wallet/add")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddMoneyRequest(Money.parse(amount)))))
+                .andExpect(status().isOk());
+    }
+
+    private String register(String name) throws Exception {
+        String email = "events-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(name, email, "password123"))))
+                .andExpect(status().isCreated());
+        return email;
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AuthRequest(email, "password123"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+}
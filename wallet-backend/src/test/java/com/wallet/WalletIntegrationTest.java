@@ -8,6 +8,7 @@ import com.wallet.dto.RegisterRequest;
 import com.wallet.dto.TransferRequest;
 import com.wallet.dto.UserDto;
 import com.wallet.dto.WalletResponse;
+import com.wallet.model.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +19,6 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -68,7 +68,7 @@ class WalletIntegrationTest {
     @Test
     void testAddMoney() throws Exception {
         // Add money
-        AddMoneyRequest addRequest = new AddMoneyRequest(new BigDecimal("100.00"));
+        AddMoneyRequest addRequest = new AddMoneyRequest(Money.parse("100.00"));
 
         MvcResult result = mockMvc.perform(post("/api/wallet/add")
                 .header("Authorization", token)
@@ -83,7 +83,7 @@ class WalletIntegrationTest {
         WalletResponse walletResponse = objectMapper.readValue(response, WalletResponse.class);
         
         assertNotNull(walletResponse.getTransactionId());
-        assertEquals(new BigDecimal("100.00"), walletResponse.getBalance());
+        assertEquals(Money.parse("100.00"), walletResponse.getBalance());
     }
 
     @Test
@@ -101,7 +101,7 @@ class WalletIntegrationTest {
                 .andExpect(status().isOk());
 
         // Add money to sender
-        AddMoneyRequest addRequest = new AddMoneyRequest(new BigDecimal("200.00"));
+        AddMoneyRequest addRequest = new AddMoneyRequest(Money.parse("200.00"));
         mockMvc.perform(post("/api/wallet/add")
                 .header("Authorization", token)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -111,7 +111,7 @@ class WalletIntegrationTest {
         // Transfer money
         TransferRequest transferRequest = new TransferRequest(
                 "recipient@example.com",
-                new BigDecimal("50.00")
+                Money.parse("50.00")
         );
 
         mockMvc.perform(post("/api/wallet/transfer")
@@ -140,7 +140,7 @@ class WalletIntegrationTest {
         // Try to transfer without sufficient balance
         TransferRequest transferRequest = new TransferRequest(
                 "recipient2@example.com",
-                new BigDecimal("100.00")
+                Money.parse("100.00")
         );
 
         mockMvc.perform(post("/api/wallet/transfer")
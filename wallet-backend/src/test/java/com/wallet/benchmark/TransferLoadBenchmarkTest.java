@@ -0,0 +1,233 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test of the wallet API under skewed contention. Accounts are picked from a
+ * Zipf distribution, so a few hot accounts send and receive most transfers. Reports HdrHistogram
+ * latency percentiles and throughput per endpoint, written to
+ * {@code target/benchmarks/transfer-load.json}, then checks that no money was created or lost:
+ * the sum of all balances equals the sum of all ADD amounts.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark -Dtest=TransferLoadBenchmarkTest}; tune with
+ * {@code -Dbenchmark.load.concurrency}, {@code .requests}, {@code .accounts}, {@code .zipf-exponent},
+ * {@code .transfer-percent} and {@code .add-percent} (the rest reads {@code /transactions}).
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:transferload",
+        "logging.level.com.wallet=WARN"
+})
+@ActiveProfiles("test")
+class TransferLoadBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.load.concurrency", 64);
+    private static final int REQUESTS = Integer.getInteger("benchmark.load.requests", 20000);
+    private static final int ACCOUNTS = Integer.getInteger("benchmark.load.accounts", 100);
+    private static final double ZIPF_EXPONENT = Double.parseDouble(System.getProperty("benchmark.load.zipf-exponent", "1.1"));
+    private static final int TRANSFER_PERCENT = Integer.getInteger("benchmark.load.transfer-percent", 70);
+    private static final int ADD_PERCENT = Integer.getInteger("benchmark.load.add-percent", 15);
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100.00");
+
+    private enum Operation { TRANSFER, ADD, TRANSACTIONS }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void skewedTransferLoadConservesMoney() throws Exception {
+        List<String> emails = new ArrayList<>(ACCOUNTS);
+        List<String> tokens = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String email = "load-" + i + "-" + UUID.randomUUID() + "@example.com";
+            send(post("/api/auth/register", null, Map.of("name", "Load User " + i, "email", email, "password", "password123")));
+            HttpResponse<String> login = send(post("/api/auth/login", null, Map.of("email", email, "password", "password123")));
+            String token = objectMapper.readTree(login.body()).get("token").asText();
+            send(post("/api/wallet/add", token, Map.of("amount", INITIAL_BALANCE.toPlainString())));
+            emails.add(email);
+            tokens.add(token);
+        }
+
+        ZipfDistribution zipf = new ZipfDistribution(ACCOUNTS, ZIPF_EXPONENT);
+        Map<Operation, List<Histogram>> histograms = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ArrayList<>());
+        }
+        Map<Operation, AtomicInteger> rejected = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            rejected.put(operation, new AtomicInteger());
+        }
+        AtomicInteger serverErrors = new AtomicInteger();
+        AtomicLong addedCents = new AtomicLong();
+        AtomicInteger next = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY)) {
+            List<Future<Map<Operation, Histogram>>> results = new ArrayList<>();
+            for (int w = 0; w < CONCURRENCY; w++) {
+                results.add(workers.submit(() -> {
+                    Map<Operation, Histogram> local = new EnumMap<>(Operation.class);
+                    for (Operation operation : Operation.values()) {
+                        local.put(operation, new Histogram(TimeUnit.MINUTES.toNanos(1), 3));
+                    }
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (next.getAndIncrement() < REQUESTS) {
+                        int from = zipf.sample(random);
+                        int roll = random.nextInt(100);
+                        Operation operation = roll < TRANSFER_PERCENT ? Operation.TRANSFER
+                                : roll < TRANSFER_PERCENT + ADD_PERCENT ? Operation.ADD
+                                : Operation.TRANSACTIONS;
+                        long cents = random.nextLong(1, 2000);
+                        String amount = BigDecimal.valueOf(cents, 2).toPlainString();
+
+                        HttpRequest request = switch (operation) {
+                            case TRANSFER -> {
+                                int to = zipf.sample(random);
+                                while (to == from) {
+                                    to = zipf.sample(random);
+                                }
+                                yield post("/api/wallet/transfer", tokens.get(from), Map.of("toEmail", emails.get(to), "amount", amount));
+                            }
+                            case ADD -> post("/api/wallet/add", tokens.get(from), Map.of("amount", amount));
+                            case TRANSACTIONS -> HttpRequest.newBuilder(uri("/api/wallet/transactions?size=20"))
+                                    .header("Authorization", tokens.get(from)).GET().build();
+                        };
+
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        local.get(operation).recordValue(System.nanoTime() - sent);
+
+                        if (response.statusCode() >= 500) {
+                            serverErrors.incrementAndGet();
+                        } else if (response.statusCode() != 200) {
+                            rejected.get(operation).incrementAndGet();
+                        } else if (operation == Operation.ADD) {
+                            addedCents.addAndGet(cents);
+                        }
+                    }
+                    return local;
+                }));
+            }
+            for (Future<Map<Operation, Histogram>> result : results) {
+                result.get().forEach((operation, histogram) -> histograms.get(operation).add(histogram));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", CONCURRENCY);
+        report.put("requests", REQUESTS);
+        report.put("accounts", ACCOUNTS);
+        report.put("zipfExponent", ZIPF_EXPONENT);
+        report.put("throughput", REQUESTS / elapsedSeconds);
+        report.put("serverErrors", serverErrors.get());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        System.out.printf("%n%-13s %8s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "rejected", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        histograms.forEach((operation, parts) -> {
+            Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 3);
+            parts.forEach(histogram::add);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getTotalCount());
+            stats.put("rejected", rejected.get(operation).get());
+            stats.put("throughput", histogram.getTotalCount() / elapsedSeconds);
+            stats.put("p50Ms", histogram.getValueAtPercentile(50) / 1e6);
+            stats.put("p90Ms", histogram.getValueAtPercentile(90) / 1e6);
+            stats.put("p99Ms", histogram.getValueAtPercentile(99) / 1e6);
+            stats.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1e6);
+            stats.put("maxMs", histogram.getMaxValue() / 1e6);
+            operations.put(operation.name().toLowerCase(), stats);
+            System.out.printf("%-13s %8d %9d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation.name().toLowerCase(),
+                    stats.get("count"), stats.get("rejected"), stats.get("throughput"), stats.get("p50Ms"),
+                    stats.get("p90Ms"), stats.get("p99Ms"), stats.get("p999Ms"), stats.get("maxMs"));
+        });
+        report.put("operations", operations);
+        System.out.printf("total throughput: %.0f req/s%n", REQUESTS / elapsedSeconds);
+
+        Path output = Path.of("target", "benchmarks", "transfer-load.json");
+        Files.createDirectories(output.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+
+        assertEquals(0, serverErrors.get(), "no request may fail with a server error");
+        assertConservation(addedCents.get());
+    }
+
+    private void assertConservation(long addedCents) {
+        BigDecimal totalBalance = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(balance), 0) FROM users", BigDecimal.class)
+                .add(jdbcTemplate.queryForObject("SELECT COALESCE(SUM(balance), 0) FROM balance_slots", BigDecimal.class));
+        BigDecimal totalAdded = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE type = 'ADD'", BigDecimal.class);
+        Integer negative = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE balance < 0", Integer.class);
+
+        assertEquals(0, totalBalance.subtract(totalAdded).signum(),
+                "total balance " + totalBalance + " must equal total added " + totalAdded);
+        assertEquals(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).add(BigDecimal.valueOf(addedCents, 2)), totalAdded);
+        assertEquals(0, negative);
+    }
+
+    private HttpRequest post(String path, String token, Map<String, String> body) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+            if (token != null) {
+                builder.header("Authorization", token);
+            }
+            return builder.build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(2, response.statusCode() / 100, () -> request.uri() + " returned " + response.statusCode());
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,160 @@
+package com.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.WalletBackendApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application once with platform request threads and once with virtual threads and
+ * drives the same blocking endpoint (JWT check plus a JDBC history query) at a concurrency above
+ * Tomcat's default 200 worker threads. Prints throughput and latency percentiles for both modes
+ * and writes them to {@code target/benchmarks/virtual-threads.json}.
+ *
+ * <p>Run with {@code mvn test -Pbenchmark}; tune with {@code -Dbenchmark.concurrency},
+ * {@code -Dbenchmark.requests} and {@code -Dbenchmark.warmup}.
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 2000);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        results.put("platform", run(false));
+        results.put("virtual", run(true));
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        results.forEach((mode, result) -> System.out.printf("%-10s %12.0f %10.2f %10.2f %10.2f %8d%n",
+                mode, result.get("throughput"), result.get("p50Ms"), result.get("p99Ms"), result.get("maxMs"), result.get("errors")));
+
+        Path output = Path.of("target", "benchmarks", "virtual-threads.json");
+        Files.createDirectories(output.getParent());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", CONCURRENCY);
+        report.put("requests", REQUESTS);
+        report.put("results", results);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+    }
+
+    private Map<String, Object> run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WalletBackendApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + mode,
+                        "logging.level.com.wallet=WARN")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            String token = seedAccount(baseUrl);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/wallet/transactions/history?size=20"))
+                    .header("Authorization", token)
+                    .GET()
+                    .build();
+
+            drive(request, WARMUP);
+            return drive(request, REQUESTS);
+        }
+    }
+
+    private Map<String, Object> drive(HttpRequest request, int total) throws InterruptedException {
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < CONCURRENCY; w++) {
+                workers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                    return null;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("throughput", total / (elapsed / 1e9));
+        result.put("p50Ms", percentile(latencies, 0.50));
+        result.put("p99Ms", percentile(latencies, 0.99));
+        result.put("maxMs", latencies[total - 1] / 1e6);
+        result.put("errors", errors.get());
+        return result;
+    }
+
+    private String seedAccount(String baseUrl) throws Exception {
+        String email = "benchmark-" + UUID.randomUUID() + "@example.com";
+        post(baseUrl + "/api/auth/register", null,
+                Map.of("name", "Benchmark User", "email", email, "password", "password123"));
+        String token = objectMapper.readTree(post(baseUrl + "/api/auth/login", null,
+                Map.of("email", email, "password", "password123"))).get("token").asText();
+        List<String> amounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            amounts.add(post(baseUrl + "/api/wallet/add", token, Map.of("amount", "1.00")));
+        }
+        assertEquals(20, amounts.size());
+        return token;
+    }
+
+    private String post(String url, String token, Map<String, String> body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", token);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() / 100 == 2, () -> url + " returned " + response.statusCode());
+        return response.body();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
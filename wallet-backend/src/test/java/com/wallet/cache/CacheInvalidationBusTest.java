@@ -0,0 +1,98 @@
+package com.wallet.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    private final List<LoopbackInvalidationTransport> transports = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        transports.forEach(LoopbackInvalidationTransport::destroy);
+    }
+
+    @Test
+    void testKeysAreCoalescedIntoOneBatchAndAppliedElsewhere() {
+        CacheInvalidationBus sender = bus(loopback());
+        CacheInvalidationBus receiver = bus(loopback());
+        List<Collection<String>> senderApplied = new CopyOnWriteArrayList<>();
+        List<Collection<String>> receiverApplied = new CopyOnWriteArrayList<>();
+        sender.register("users", senderApplied::add);
+        receiver.register("users", receiverApplied::add);
+
+        sender.publish("users", List.of(1L, 2L));
+        sender.publish("users", List.of(2L, 1L));
+        sender.publish("users", List.of(3L));
+        sender.publish("unknown", List.of("x"));
+        sender.flush();
+        sender.flush();
+
+        assertEquals(List.of(Set.of("1", "2", "3")), receiverApplied);
+        // An instance never receives its own invalidations
+        assertTrue(senderApplied.isEmpty());
+    }
+
+    @Test
+    void testFailedSendIsRetriedWithNextFlush() {
+        List<InvalidationBatch> sent = new ArrayList<>();
+        boolean[] failNext = {true};
+        CacheInvalidationBus bus = bus(new InvalidationTransport() {
+            @Override
+            public void send(InvalidationBatch batch) {
+                if (failNext[0]) {
+                    failNext[0] = false;
+                    throw new IllegalStateException("database unavailable");
+                }
+                sent.add(batch);
+            }
+
+            @Override
+            public void subscribe(Consumer<InvalidationBatch> receiver) {
+            }
+        });
+
+        bus.publish("users", List.of(1L));
+        bus.flush();
+        bus.publish("users", List.of(2L));
+        bus.flush();
+
+        assertEquals(1, sent.size());
+        assertEquals(Map.of("users", Set.of("1", "2")), sent.get(0).keys());
+    }
+
+    @Test
+    void testPublishingWithoutTransportIsNoOp() {
+        CacheInvalidationBus bus = bus(null);
+        bus.register("users", keys -> fail("Nothing can be received without a transport"));
+
+        bus.publish("users", List.of(1L));
+        bus.flush();
+    }
+
+    private LoopbackInvalidationTransport loopback() {
+        LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+        transports.add(transport);
+        return transport;
+    }
+
+    private static CacheInvalidationBus bus(InvalidationTransport transport) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (transport != null) {
+            beans.addBean("transport", transport);
+        }
+        return new CacheInvalidationBus(beans.getBeanProvider(InvalidationTransport.class), new SimpleMeterRegistry());
+    }
+}
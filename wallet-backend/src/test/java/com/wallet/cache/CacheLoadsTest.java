@@ -0,0 +1,70 @@
+package com.wallet.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheLoadsTest {
+
+    private final AsyncCache<String, Long> cache = Caffeine.newBuilder().buildAsync();
+
+    @Test
+    void testMissIsLoadedOnTheCallingThread() {
+        Thread caller = Thread.currentThread();
+
+        Long value = CacheLoads.get(cache, "a", key -> {
+            assertSame(caller, Thread.currentThread());
+            return 1L;
+        });
+
+        assertEquals(1L, value);
+        assertEquals(1L, CacheLoads.get(cache, "a", key -> fail("should be cached")));
+    }
+
+    @Test
+    void testNullAndFailedLoadsAreNotCached() {
+        assertNull(CacheLoads.get(cache, "a", key -> null));
+        assertThrows(IllegalStateException.class, () -> CacheLoads.get(cache, "b", key -> {
+            throw new IllegalStateException("query failed");
+        }));
+
+        assertEquals(0, cache.synchronous().estimatedSize());
+    }
+
+    @Test
+    void testKeyInvalidatedWhileLoadingIsNotPutBack() {
+        Long value = CacheLoads.get(cache, "a", key -> {
+            cache.synchronous().invalidate(key);
+            return 1L;
+        });
+
+        assertEquals(1L, value);
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    void testAllMissesAreLoadedTogether() {
+        cache.put("a", CompletableFuture.completedFuture(1L));
+        List<Object> requested = new ArrayList<>();
+
+        Map<String, Long> values = CacheLoads.getAll(cache, List.of("a", "b", "c"), missing -> {
+            requested.add(Set.copyOf(missing));
+            Map<String, Long> loaded = new HashMap<>();
+            loaded.put("b", 2L);
+            return loaded;
+        });
+
+        assertEquals(Map.of("a", 1L, "b", 2L), values);
+        assertEquals(List.of(Set.of("b", "c")), requested);
+        assertNull(cache.getIfPresent("c"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.wallet.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    @Test
+    void idsIncreaseAndFitInJavaScriptSafeRange() {
+        IdGenerator idGenerator = new IdGenerator(3);
+        long previous = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+            long id = idGenerator.nextId();
+            assertTrue(id > previous);
+            assertTrue(id < (1L << 53));
+            assertEquals(3, id & 0xF);
+            previous = id;
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws InterruptedException {
+        IdGenerator idGenerator = new IdGenerator(0);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(idGenerator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void nodeIdMustFitItsBits() {
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(16));
+    }
+}
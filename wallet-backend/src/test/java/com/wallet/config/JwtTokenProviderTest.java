@@ -0,0 +1,68 @@
+package com.wallet.config;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "secret",
+                "testSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS512Algorithm");
+        ReflectionTestUtils.setField(jwtTokenProvider, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "claimsCacheMaxSize", 100L);
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    void parseTokenReturnsTypedPrincipal() {
+        String token = jwtTokenProvider.generateToken("alice@example.com", 42L);
+
+        JwtPrincipal principal = jwtTokenProvider.parseToken(token);
+
+        assertEquals("alice@example.com", principal.getEmail());
+        assertEquals(42L, principal.getUserId());
+        assertFalse(principal.isExpired());
+    }
+
+    @Test
+    void issuedAtKeepsMilliseconds() {
+        long before = System.currentTimeMillis();
+        String token = jwtTokenProvider.generateToken("alice@example.com", 42L);
+        long after = System.currentTimeMillis();
+
+        long issuedAt = jwtTokenProvider.parseToken(token).getIssuedAt().toEpochMilli();
+
+        assertTrue(issuedAt >= before && issuedAt <= after);
+    }
+
+    @Test
+    void repeatTokenIsServedFromCache() {
+        String token = jwtTokenProvider.generateToken("alice@example.com", 42L);
+
+        assertSame(jwtTokenProvider.parseToken(token), jwtTokenProvider.parseToken(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtTokenProvider.generateToken("alice@example.com", 42L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(tampered));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        ReflectionTestUtils.setField(jwtTokenProvider, "expiration", -1_000L);
+        String token = jwtTokenProvider.generateToken("alice@example.com", 42L);
+
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseToken(token));
+    }
+}
@@ -0,0 +1,48 @@
+package com.wallet.ledger;
+
+import com.wallet.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerShardTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void testHaltedShardRejectsFurtherCommands() {
+        LedgerShard shard = new LedgerShard(0, new LedgerJournal(journalDirectory, 0, 1 << 20),
+                userId -> 100L, entries -> { }, new AtomicLong(), 16, 8);
+        shard.start();
+        try {
+            assertEquals(150L, shard.submit(s -> s.add(1, 50)).join().getBalance());
+
+            shard.halt(new IllegalStateException("credit could not be applied"));
+
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> shard.submit(s -> s.balanceOf(1)).join());
+            assertEquals(503, ((ApiException) e.getCause()).getStatusCode());
+        } finally {
+            shard.stop();
+        }
+    }
+
+    @Test
+    void testStoppedShardFailsCommandsInsteadOfQueueingThem() {
+        LedgerShard shard = new LedgerShard(0, new LedgerJournal(journalDirectory, 0, 1 << 20),
+                userId -> 100L, entries -> { }, new AtomicLong(), 16, 8);
+        shard.start();
+        shard.stop();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> shard.submit(s -> s.balanceOf(1)).orTimeout(5, TimeUnit.SECONDS).join());
+        assertEquals(503, ((ApiException) e.getCause()).getStatusCode());
+    }
+}
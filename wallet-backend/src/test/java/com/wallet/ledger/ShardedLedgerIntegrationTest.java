@@ -0,0 +1,162 @@
+package com.wallet.ledger;
+
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.exception.ApiException;
+import com.wallet.model.Money;
+import com.wallet.model.User;
+import com.wallet.repository.UserRepository;
+import com.wallet.service.IdempotencyService;
+import com.wallet.service.WalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardedledger",
+        "wallet.ledger.engine=sharded",
+        "wallet.ledger.shards=4",
+        "wallet.ledger.journal-dir=target/ledger-journal-${random.uuid}",
+        "wallet.ledger.projection-interval-ms=10"
+})
+@ActiveProfiles("test")
+class ShardedLedgerIntegrationTest {
+
+    private static final int ACCOUNTS = 20;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private ShardedLedger shardedLedger;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User user = new User();
+            user.setName("Ledger User " + i);
+            user.setEmail("ledger-" + UUID.randomUUID() + "@example.com");
+            user.setPassword("unused");
+            users.add(userRepository.save(user));
+            walletService.addMoney(user.getId(), new AddMoneyRequest(Money.parse("100.00")));
+        }
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoneyAndProjectToDatabase() throws Exception {
+        long before = totalLedgerBalance();
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                User from = users.get(random.nextInt(ACCOUNTS));
+                User to = users.get(random.nextInt(ACCOUNTS));
+                if (from.getId().equals(to.getId())) {
+                    return;
+                }
+                try {
+                    walletService.transferMoney(from.getId(),
+                            new TransferRequest(to.getEmail(), Money.ofMinor(random.nextInt(1, 5000))));
+                    succeeded.incrementAndGet();
+                } catch (ApiException e) {
+                    assertEquals("Insufficient balance", e.getMessage());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(before, totalLedgerBalance());
+        for (User user : users) {
+            assertTrue(shardedLedger.balance(user.getId()) >= 0);
+        }
+
+        awaitProjection();
+        for (User user : users) {
+            BigDecimal projected = jdbcTemplate.queryForObject(
+                    "SELECT balance FROM users WHERE id = ?", BigDecimal.class, user.getId());
+            assertEquals(MinorUnits.toDecimal(shardedLedger.balance(user.getId())), projected);
+        }
+        Integer sends = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions WHERE type = 'SEND'", Integer.class);
+        assertEquals(succeeded.get(), sends);
+    }
+
+    @Test
+    void testInsufficientBalanceIsRejected() {
+        User from = users.get(0);
+        User to = users.get(1);
+
+        ApiException ex = assertThrows(ApiException.class, () -> walletService.transferMoney(from.getId(),
+                new TransferRequest(to.getEmail(), Money.parse("100000.00"))));
+        assertEquals("Insufficient balance", ex.getMessage());
+    }
+
+    @Test
+    void testIdempotencyKeyIsRejected() {
+        User user = users.get(0);
+        long before = shardedLedger.balance(user.getId());
+        AddMoneyRequest request = new AddMoneyRequest(Money.parse("1.00"));
+
+        ApiException ex = assertThrows(ApiException.class, () -> idempotencyService.execute(user.getId(), "key-1",
+                "add", request, () -> walletService.addMoney(user.getId(), request)));
+        assertEquals(400, ex.getStatusCode());
+        assertEquals(before, shardedLedger.balance(user.getId()));
+    }
+
+    private long totalLedgerBalance() {
+        long total = 0;
+        for (User user : users) {
+            total += shardedLedger.balance(user.getId());
+        }
+        return total;
+    }
+
+    private void awaitProjection() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            boolean projected = true;
+            for (User user : users) {
+                BigDecimal balance = jdbcTemplate.queryForObject(
+                        "SELECT balance FROM users WHERE id = ?", BigDecimal.class, user.getId());
+                projected &= MinorUnits.toDecimal(shardedLedger.balance(user.getId())).compareTo(balance) == 0;
+            }
+            if (projected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("Ledger entries were not projected in time");
+    }
+}
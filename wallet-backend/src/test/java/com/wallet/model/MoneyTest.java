@@ -0,0 +1,53 @@
+package com.wallet.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.wallet.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void arithmeticWorksOnMinorUnitsAndDetectsOverflow() {
+        Money balance = Money.parse("15.25");
+        Money amount = Money.parse("0.30");
+
+        assertEquals(Money.ofMinor(1495), balance.minus(amount));
+        assertEquals(Money.ofMinor(1555), balance.plus(amount));
+        assertTrue(amount.isLessThan(balance));
+        assertTrue(Money.ZERO.minus(amount).compareTo(Money.ZERO) < 0);
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void decimalConversionIsExact() {
+        assertEquals(new BigDecimal("12.50"), Money.of(new BigDecimal("12.5")).toDecimal());
+        assertEquals(Money.ofMinor(700), Money.of(new BigDecimal("7")));
+        assertThrows(ApiException.class, () -> Money.of(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void toStringMatchesPlainDecimal() {
+        for (long minor : new long[]{0, 5, -5, 99, 100, -1234, 123456789, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            assertEquals(BigDecimal.valueOf(minor, 2).toPlainString(), Money.ofMinor(minor).toString());
+        }
+    }
+
+    @Test
+    void jsonKeepsTheDecimalFormat() throws Exception {
+        assertEquals("{\"amount\":12.50}", objectMapper.writeValueAsString(new Holder(Money.parse("12.5"))));
+        assertEquals(Money.ofMinor(1250), objectMapper.readValue("{\"amount\":12.50}", Holder.class).amount);
+        assertEquals(Money.ofMinor(1200), objectMapper.readValue("{\"amount\":12}", Holder.class).amount);
+        assertEquals(Money.ofMinor(5), objectMapper.readValue("{\"amount\":\"0.05\"}", Holder.class).amount);
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("{\"amount\":1.005}", Holder.class));
+    }
+
+    record Holder(Money amount) {
+    }
+}
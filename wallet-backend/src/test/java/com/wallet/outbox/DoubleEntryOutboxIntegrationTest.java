@@ -0,0 +1,16 @@
+package com.wallet.outbox;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the outbox tests against the double-entry store, which keeps one row per movement.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxdoubleentry",
+        "wallet.transactions.storage=double-entry",
+        "wallet.outbox.sink=http",
+        "wallet.outbox.poll-interval-ms=3600000",
+        "wallet.outbox.batch-size=2"
+})
+class DoubleEntryOutboxIntegrationTest extends OutboxIntegrationTest {
+}
@@ -0,0 +1,227 @@
+package com.wallet.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.wallet.dto.AddMoneyRequest;
+import com.wallet.dto.TransferRequest;
+import com.wallet.exception.ApiException;
+import com.wallet.model.Money;
+import com.wallet.model.User;
+import com.wallet.repository.UserRepository;
+import com.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Relays to a stub HTTP endpoint in the same JVM. Scheduled polling is pushed out of the way so
+ * each test drives the relay itself.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox",
+        "wallet.outbox.sink=http",
+        "wallet.outbox.poll-interval-ms=3600000",
+        "wallet.outbox.batch-size=2"
+})
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+
+    // Shared with subclasses running against other storage; it goes away with the test JVM
+    private static final HttpServer STUB = startStub();
+    private static final List<JsonNode> RECEIVED = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger REQUESTS = new AtomicInteger();
+    private static final AtomicInteger FAILURES_TO_SEND = new AtomicInteger();
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void stubUrl(DynamicPropertyRegistry registry) {
+        registry.add("wallet.outbox.http.url",
+                () -> "http://localhost:" + STUB.getAddress().getPort() + "/events");
+    }
+
+    @BeforeEach
+    void setUp() {
+        relay.relay();
+        RECEIVED.clear();
+        FAILURES_TO_SEND.set(0);
+    }
+
+    @Test
+    void testEveryCommittedMovementIsDeliveredOnce() {
+        User alice = user();
+        User bob = user();
+        User carol = user();
+
+        walletService.addMoney(alice.getId(), new AddMoneyRequest(Money.parse("10.00")));
+        walletService.transferMoney(alice.getId(), new TransferRequest(bob.getEmail(), Money.parse("3.00")));
+        walletService.transferBatch(alice.getId(), List.of(
+                new TransferRequest(bob.getEmail(), Money.parse("1.00")),
+                new TransferRequest(carol.getEmail(), Money.parse("2.00"))));
+        // A rolled back transfer leaves no event behind
+        assertThrows(ApiException.class, () ->
+                walletService.transferMoney(bob.getId(), new TransferRequest(carol.getEmail(), Money.parse("99.00"))));
+        assertEquals(4, pendingEvents());
+
+        int requestsBefore = REQUESTS.get();
+        relay.relay();
+
+        // Batches of two, and the second one being full makes the relay look for a third
+        assertEquals(requestsBefore + 2, REQUESTS.get());
+        assertEquals(0, pendingEvents());
+        assertEquals(4, RECEIVED.size());
+        assertEquals(4, RECEIVED.stream().map(event -> event.get("id").asLong()).distinct().count());
+        assertTrue(RECEIVED.stream().noneMatch(event -> event.at("/payload/timestamp").isNull()));
+
+        JsonNode add = RECEIVED.get(0);
+        assertEquals("transaction", add.get("type").asText());
+        assertEquals("ADD", add.get("payload").get("kind").asText());
+        assertTrue(add.get("payload").get("fromUserId").isNull());
+        assertEquals(alice.getId(), add.get("payload").get("toUserId").asLong());
+        assertEquals(Money.parse("10.00"), Money.parse(add.get("payload").get("amount").asText()));
+
+        JsonNode transfer = RECEIVED.get(1).get("payload");
+        assertEquals("TRANSFER", transfer.get("kind").asText());
+        assertEquals(alice.getId(), transfer.get("fromUserId").asLong());
+        assertEquals(bob.getId(), transfer.get("toUserId").asLong());
+        assertFalse(transfer.get("fromTransactionId").isNull());
+        assertFalse(transfer.get("toTransactionId").isNull());
+
+        assertEquals(carol.getId(), RECEIVED.get(3).get("payload").get("toUserId").asLong());
+        assertTrue(meterRegistry.get("wallet.outbox.delivered").tag("sink", "http").counter().count() >= 4);
+        assertTrue(meterRegistry.get("wallet.outbox.lag").timer().count() >= 4);
+    }
+
+    @Test
+    void testFailedBatchIsRetriedAfterBackoff() {
+        User user = user();
+        walletService.addMoney(user.getId(), new AddMoneyRequest(Money.parse("5.00")));
+        double failedBefore = meterRegistry.get("wallet.outbox.failed").tag("sink", "http").counter().count();
+        FAILURES_TO_SEND.set(1);
+
+        relay.relay();
+
+        assertTrue(RECEIVED.isEmpty());
+        assertEquals(failedBefore + 1, meterRegistry.get("wallet.outbox.failed").tag("sink", "http").counter().count());
+        var row = jdbcTemplate.queryForMap("SELECT attempts, available_at, last_error FROM outbox_events");
+        assertEquals(1, ((Number) row.get("attempts")).intValue());
+        assertTrue(((Number) row.get("available_at")).longValue() > System.currentTimeMillis());
+        assertTrue(row.get("last_error").toString().contains("503"));
+
+        // Still backing off, so the endpoint is left alone
+        int requestsBefore = REQUESTS.get();
+        relay.relay();
+        assertEquals(requestsBefore, REQUESTS.get());
+
+        jdbcTemplate.update("UPDATE outbox_events SET available_at = 0");
+        relay.relay();
+
+        assertEquals(1, RECEIVED.size());
+        assertEquals(user.getId(), RECEIVED.get(0).get("payload").get("toUserId").asLong());
+        assertEquals(0, pendingEvents());
+    }
+
+    @Test
+    void testRowsLockedByAnotherRelayAreSkipped() throws Exception {
+        User user = user();
+        walletService.addMoney(user.getId(), new AddMoneyRequest(Money.parse("1.00")));
+        walletService.addMoney(user.getId(), new AddMoneyRequest(Money.parse("2.00")));
+        Long locked = jdbcTemplate.queryForObject("SELECT MIN(id) FROM outbox_events", Long.class);
+
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherRelay = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.queryForList("SELECT id FROM outbox_events WHERE id = ? FOR UPDATE", locked);
+                    lockHeld.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        try {
+            assertTrue(lockHeld.await(10, TimeUnit.SECONDS));
+
+            assertEquals(1, relay.relayBatch());
+            assertEquals(1, RECEIVED.size());
+            assertNotEquals(locked, RECEIVED.get(0).get("id").asLong());
+        } finally {
+            release.countDown();
+            otherRelay.get(10, TimeUnit.SECONDS);
+        }
+
+        relay.relay();
+        assertEquals(locked, RECEIVED.get(1).get("id").asLong());
+    }
+
+    private int pendingEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class);
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("Outbox User");
+        user.setEmail("outbox-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        return userRepository.save(user);
+    }
+
+    private static HttpServer startStub() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/events", exchange -> {
+                REQUESTS.incrementAndGet();
+                byte[] body = exchange.getRequestBody().readAllBytes();
+                if (FAILURES_TO_SEND.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    exchange.sendResponseHeaders(503, -1);
+                } else {
+                    objectMapper.readTree(body).forEach(RECEIVED::add);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wallet.service;
+
+import com.wallet.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationMetricsTest {
+
+    @Test
+    void testOutcomeFollowsReasonNotMessage() {
+        assertEquals("insufficient_funds",
+                OperationMetrics.outcomeOf(new ApiException("Not enough money", 400, ApiException.Reason.INSUFFICIENT_FUNDS)));
+        assertEquals("recipient_not_found", OperationMetrics.outcomeOf(ApiException.recipientNotFound("a@example.com")));
+        // Messages alone no longer classify anything
+        assertEquals("not_found", OperationMetrics.outcomeOf(new ApiException("Recipient not found with email: x", 404)));
+        assertEquals("rejected", OperationMetrics.outcomeOf(new ApiException("Insufficient balance")));
+    }
+
+    @Test
+    void testOutcomeFallsBackToStatusCode() {
+        assertEquals("conflict", OperationMetrics.outcomeOf(new ApiException("Busy", 409)));
+        assertEquals("shed", OperationMetrics.outcomeOf(new ApiException("Overloaded", 429)));
+        assertEquals("shed", OperationMetrics.outcomeOf(new ApiException("Unavailable", 503)));
+    }
+}
@@ -0,0 +1,139 @@
+package com.wallet.service;
+
+import com.wallet.dto.TransactionDto;
+import com.wallet.dto.WalletEvent;
+import com.wallet.exception.ApiException;
+import com.wallet.model.Money;
+import com.wallet.model.Transaction.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletEventsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WalletEvents walletEvents;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        walletEvents = new WalletEvents(meterRegistry, 2, 60_000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletEvents.destroy();
+    }
+
+    @Test
+    void testSlowClientIsDroppedWhenBufferOverflows() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        walletEvents.register(1L, slow);
+        walletEvents.register(1L, fast);
+
+        walletEvents.publish(1L, event(1));
+        // The first event is being written, so the buffer is empty again
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        awaitSent(fast, 1);
+        walletEvents.publish(1L, event(2));
+        walletEvents.publish(1L, event(3));
+        awaitSent(fast, 3);
+        assertFalse(slow.completed.await(100, TimeUnit.MILLISECONDS));
+
+        // Publishing never waits for the stuck write; the overflowing client is cut off instead
+        walletEvents.publish(1L, event(4));
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.counter("wallet.events.dropped", "reason", "slow_client").count());
+
+        walletEvents.publish(1L, event(5));
+        awaitSent(fast, 5);
+        slow.release.countDown();
+        assertTrue(slow.sent.get() <= 1);
+    }
+
+    @Test
+    void testEventsWaitForCommit() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        walletEvents.register(2L, emitter);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            walletEvents.publish(2L, event(1));
+            Thread.sleep(100);
+            assertEquals(0, emitter.sent.get());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        awaitSent(emitter, 1);
+    }
+
+    @Test
+    void testConnectionsPerUserAreLimited() {
+        walletEvents.register(3L, new RecordingEmitter(new CountDownLatch(0)));
+        walletEvents.register(3L, new RecordingEmitter(new CountDownLatch(0)));
+
+        ApiException rejected = assertThrows(ApiException.class,
+                () -> walletEvents.register(3L, new RecordingEmitter(new CountDownLatch(0))));
+        assertEquals(429, rejected.getStatusCode());
+        assertFalse(walletEvents.hasSubscribers(4L));
+    }
+
+    private static WalletEvent event(long id) {
+        return new WalletEvent(Money.parse("1.00"), new TransactionDto(
+                id, TransactionType.ADD, Money.parse("1.00"), null, LocalDateTime.now()));
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitter.sent.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, emitter.sent.get());
+    }
+
+    /**
+     * Stands in for a client connection; writes block until {@code release} opens.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final AtomicInteger sent = new AtomicInteger();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wallet.benchmarks;
+
+import com.wallet.exception.ApiException;
+import com.wallet.exception.ErrorResponse;
+import com.wallet.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rejected request: throwing an {@link ApiException} (dominated by filling in its
+ * stack trace) and turning it into an error response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionHandlingBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    private ApiException exception;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("POST", "/api/wallet/transfer");
+        exception = new ApiException("Insufficient balance");
+    }
+
+    @Benchmark
+    public ApiException createException() {
+        return new ApiException("Insufficient balance");
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> handlePreparedException() {
+        return handler.handleApiException(exception, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> createAndHandleException() {
+        return handler.handleApiException(new ApiException("Insufficient balance"), request);
+    }
+}
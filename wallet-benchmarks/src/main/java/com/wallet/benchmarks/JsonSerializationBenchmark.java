@@ -0,0 +1,63 @@
+package com.wallet.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.dto.TransactionDto;
+import com.wallet.dto.TransactionHistoryPage;
+import com.wallet.model.Money;
+import com.wallet.model.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization of one history page, as returned by the offset-paginated
+ * {@code /transactions} and the cursor-paginated {@code /transactions/history} endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<TransactionDto> page;
+    private TransactionHistoryPage historyPage;
+
+    @Setup
+    public void setUp() {
+        // Same defaults Spring Boot applies to the MVC ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<TransactionDto> transactions = new ArrayList<>(pageSize);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            Transaction.TransactionType type = Transaction.TransactionType.values()[i % 3];
+            transactions.add(new TransactionDto((long) i, type, Money.ofMinor(i * 100L + 25),
+                    "counterparty-" + i + "@example.com", now.minusMinutes(i)));
+        }
+        page = new PageImpl<>(transactions, PageRequest.of(0, pageSize), 10_000);
+        historyPage = new TransactionHistoryPage(transactions, "MjAyNi0xMC0xOFQxMjowMDowMHwxMjM0NQ");
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeHistoryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(historyPage);
+    }
+}
@@ -0,0 +1,57 @@
+package com.wallet.benchmarks;
+
+import com.wallet.config.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and user id extraction on every authenticated request, with the
+ * verified-claims cache warm and with it disabled (full HMAC check and JSON parse).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "testSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS512Algorithm";
+
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedProvider = provider(10_000);
+        uncachedProvider = provider(0);
+        token = cachedProvider.generateToken("bench@example.com", 42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedProvider.generateToken("bench@example.com", 42L);
+    }
+
+    @Benchmark
+    public Long extractUserIdCached() {
+        return cachedProvider.extractUserId(token);
+    }
+
+    @Benchmark
+    public Long extractUserIdUncached() {
+        return uncachedProvider.extractUserId(token);
+    }
+
+    private static JwtTokenProvider provider(long cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secret", SECRET);
+        ReflectionTestUtils.setField(provider, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(provider, "claimsCacheMaxSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+}
@@ -0,0 +1,104 @@
+package com.wallet.benchmarks;
+
+import com.wallet.ledger.MinorUnits;
+import com.wallet.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The amount checks and balance updates {@code WalletService} runs per transfer, on
+ * {@link BigDecimal}, on raw long minor units as used by the in-memory ledger, and on {@link Money}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyArithmeticBenchmark {
+
+    private BigDecimal balance;
+    private BigDecimal recipientBalance;
+    private BigDecimal amount;
+    private long balanceMinor;
+    private long recipientBalanceMinor;
+    private long amountMinor;
+    private Money balanceMoney;
+    private Money recipientBalanceMoney;
+    private Money amountMoney;
+
+    @Setup
+    public void setUp() {
+        balance = new BigDecimal("1523.75");
+        recipientBalance = new BigDecimal("87.10");
+        amount = new BigDecimal("12.50");
+        balanceMinor = MinorUnits.fromDecimal(balance);
+        recipientBalanceMinor = MinorUnits.fromDecimal(recipientBalance);
+        amountMinor = MinorUnits.fromDecimal(amount);
+        balanceMoney = Money.ofMinor(balanceMinor);
+        recipientBalanceMoney = Money.ofMinor(recipientBalanceMinor);
+        amountMoney = Money.ofMinor(amountMinor);
+    }
+
+    @Benchmark
+    public void transferBigDecimal(Blackhole blackhole) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0 || balance.compareTo(amount) < 0) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(balance.subtract(amount));
+        blackhole.consume(recipientBalance.add(amount));
+    }
+
+    @Benchmark
+    public void transferMinorUnits(Blackhole blackhole) {
+        if (amountMinor <= 0 || balanceMinor < amountMinor) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(Math.subtractExact(balanceMinor, amountMinor));
+        blackhole.consume(Math.addExact(recipientBalanceMinor, amountMinor));
+    }
+
+    @Benchmark
+    public void transferMoney(Blackhole blackhole) {
+        if (!amountMoney.isPositive() || balanceMoney.isLessThan(amountMoney)) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(balanceMoney.minus(amountMoney));
+        blackhole.consume(recipientBalanceMoney.plus(amountMoney));
+    }
+
+    @Benchmark
+    public BigDecimal sumBatchBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 100; i++) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumBatchMinorUnits() {
+        long total = 0;
+        for (int i = 0; i < 100; i++) {
+            total = Math.addExact(total, amountMinor);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money sumBatchMoney() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 100; i++) {
+            total = total.plus(amountMoney);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long decimalToMinorUnits() {
+        return MinorUnits.fromDecimal(amount);
+    }
+}
@@ -0,0 +1,55 @@
+package com.wallet.benchmarks;
+
+import com.wallet.dto.TransactionDto;
+import com.wallet.model.Money;
+import com.wallet.model.Transaction;
+import com.wallet.model.User;
+import com.wallet.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a single history row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionMappingBenchmark {
+
+    private TransactionService transactionService;
+    private Transaction send;
+    private Transaction add;
+
+    @Setup
+    public void setUp() {
+        // The mapper does not touch the store
+        transactionService = new TransactionService(null, null, null);
+
+        User owner = new User();
+        owner.setId(1L);
+        owner.setEmail("owner@example.com");
+        User counterparty = new User();
+        counterparty.setId(2L);
+        counterparty.setEmail("counterparty@example.com");
+
+        send = new Transaction(10L, owner, Transaction.TransactionType.SEND, Money.parse("12.50"),
+                counterparty, LocalDateTime.now());
+        add = new Transaction(11L, owner, Transaction.TransactionType.ADD, Money.parse("100.00"),
+                null, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public TransactionDto mapSend() {
+        return transactionService.mapToTransactionDto(send);
+    }
+
+    @Benchmark
+    public TransactionDto mapAdd() {
+        return transactionService.mapToTransactionDto(add);
+    }
+}